@@ -0,0 +1,42 @@
+package com.edu.ulab.app.backpressure;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Ограничение одновременных вызовов фасада в режиме виртуальных потоков ({@code app.virtual-threads.enabled}).
+ * Число разрешений — {@code app.virtual-threads.max-concurrent-calls}, 0 — размер пула соединений.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.virtual-threads.enabled", havingValue = "true")
+public class BackpressureConfig {
+
+    @Bean
+    public ConnectionPermitAspect connectionPermitAspect(
+            DataSource dataSource,
+            @Value("${app.virtual-threads.max-concurrent-calls:0}") int maxConcurrentCalls,
+            @Value("${app.virtual-threads.acquire-timeout:5s}") Duration acquireTimeout) {
+        int permits = maxConcurrentCalls > 0 ? maxConcurrentCalls : poolSize(dataSource);
+        log.info("Facade calls limited to {} concurrent", permits);
+        return new ConnectionPermitAspect(permits, acquireTimeout);
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        HikariConfigMXBean pool = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class, HikariDataSource.class);
+        if (pool == null) {
+            throw new IllegalStateException(
+                    "Connection pool size is unknown, set app.virtual-threads.max-concurrent-calls");
+        }
+        return pool.getMaximumPoolSize();
+    }
+}
@@ -0,0 +1,49 @@
+package com.edu.ulab.app.backpressure;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничивает число одновременных вызовов {@code UserDataFacade} числом разрешений, равным размеру пула
+ * соединений.
+ * <p>
+ * С виртуальными потоками число запросов в работе больше не ограничено пулом потоков Tomcat, и без этого
+ * ограничения все они ждали бы соединения внутри пула, расходуя его таймаут. Лишние вызовы ждут разрешения
+ * дешёвой парковкой виртуального потока, справедливо по очереди. Если разрешение не получено за
+ * {@code acquireTimeout}, вызов отклоняется {@link TaskRejectedException} (ответ 503).
+ * Разрешение держится на весь вызов, включая транзакцию и её повторы: аспект стоит снаружи них.
+ */
+@Slf4j
+@Aspect
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+public class ConnectionPermitAspect {
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+
+    public ConnectionPermitAspect(int permits, Duration acquireTimeout) {
+        this.permits = new Semaphore(permits, true);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Around("execution(public * com.edu.ulab.app.facade.UserDataFacade.*(..))")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            log.warn("No connection permit for {} within {}", joinPoint.getSignature().getName(), acquireTimeout);
+            throw new TaskRejectedException("Too many concurrent requests, try again later");
+        }
+        try {
+            return joinPoint.proceed();
+        } finally {
+            permits.release();
+        }
+    }
+}
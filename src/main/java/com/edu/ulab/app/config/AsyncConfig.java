@@ -0,0 +1,76 @@
+package com.edu.ulab.app.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Пулы потоков для {@code @Async}. Каждый пул ограничен по потокам и очереди, переполнение отклоняется
+ * {@link org.springframework.core.task.TaskRejectedException}, а не копится в памяти.
+ */
+@Configuration
+@EnableAsync
+@EnableConfigurationProperties({PurgeProperties.class, AsyncCreateProperties.class})
+public class AsyncConfig {
+    public static final String PURGE_EXECUTOR = "purgeExecutor";
+    public static final String CREATE_EXECUTOR = "createExecutor";
+
+    /**
+     * Пул Spring Boot по умолчанию. Объявлен явно, потому что автоконфигурация отключается,
+     * как только в контексте появляется любой другой {@link java.util.concurrent.Executor}.
+     * В режиме виртуальных потоков его заменяет исполнитель из {@code VirtualThreadConfig}.
+     */
+    @Primary
+    @ConditionalOnProperty(name = "app.virtual-threads.enabled", havingValue = "false", matchIfMissing = true)
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Виртуальные потоки включены, а {@code VirtualThreadConfig} нет на classpath (сборка без профиля
+     * {@code java21}): приложение осталось бы без исполнителя по умолчанию, но с ограничением вызовов фасада,
+     * поэтому старт прерывается.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "app.virtual-threads.enabled", havingValue = "true")
+    @ConditionalOnMissingClass("com.edu.ulab.app.config.VirtualThreadConfig")
+    static class VirtualThreadsUnavailable {
+        VirtualThreadsUnavailable() {
+            throw new IllegalStateException(
+                    "app.virtual-threads.enabled=true requires a build with the java21 Maven profile");
+        }
+    }
+
+    @Bean(name = PURGE_EXECUTOR)
+    public ThreadPoolTaskExecutor purgeExecutor(PurgeProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getPoolSize());
+        executor.setMaxPoolSize(properties.getPoolSize());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("purge-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Пул асинхронного создания пользователей с книгами. Глубина его очереди видна в метриках
+     * {@code executor.queued}; когда очередь заполнена, новые запросы сразу получают 503.
+     */
+    @Bean(name = CREATE_EXECUTOR)
+    public ThreadPoolTaskExecutor createExecutor(AsyncCreateProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getPoolSize());
+        executor.setMaxPoolSize(properties.getPoolSize());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("create-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
@@ -0,0 +1,23 @@
+package com.edu.ulab.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.async-create")
+public class AsyncCreateProperties {
+    /**
+     * Число потоков, выполняющих асинхронное создание пользователей с книгами.
+     */
+    private int poolSize = 8;
+    /**
+     * Сколько запросов на создание может ждать свободного потока; сверх этого запросы отклоняются.
+     */
+    private int queueCapacity = 200;
+    /**
+     * Сколько запрос ждёт результата, прежде чем клиенту вернётся ошибка.
+     */
+    private Duration timeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,91 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+
+/**
+ * Кэши чтения пользователей. Изменения и удаления применяются к кэшу только после коммита транзакции,
+ * чтобы параллельное чтение не вернуло в кэш незакоммиченные данные. Значения кладутся и отдаются копиями,
+ * см. {@link CopyingCache}; метрики Caffeine для таких кэшей регистрирует {@link #copyingCacheMeterBinderProvider}.
+ */
+@Configuration
+@EnableCaching
+@ConditionalOnProperty(prefix = "app.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(UserCacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(UserCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name,
+                                               com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new CopyingCache(super.adaptCaffeineCache(name, cache), CacheConfig::copy);
+            }
+        };
+        cacheManager.registerCustomCache(CacheNames.USERS, Caffeine.newBuilder()
+                .maximumSize(properties.getUsers().getMaximumSize())
+                .expireAfterWrite(properties.getUsers().getTtl())
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(CacheNames.USER_BOOKS, Caffeine.newBuilder()
+                .maximumWeight(properties.getUserBooks().getMaximumWeight())
+                .<Object, Object>weigher((key, value) -> 1 + ((UserBookResponse) value).getBooksIdList().size())
+                .expireAfterWrite(properties.getUserBooks().getTtl())
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    /**
+     * Spring Boot привязывает метрики только к {@link CaffeineCache}, а {@link CopyingCache} его оборачивает,
+     * поэтому метрики снимаются с нативного кэша Caffeine под обёрткой.
+     */
+    @Bean
+    public CacheMeterBinderProvider<CopyingCache> copyingCacheMeterBinderProvider() {
+        // анонимный класс, а не лямбда: по его параметру типа Spring Boot отбирает только CopyingCache
+        return new CacheMeterBinderProvider<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public MeterBinder getMeterBinder(CopyingCache cache, Iterable<Tag> tags) {
+                return new CaffeineCacheMetrics<>((com.github.benmanes.caffeine.cache.Cache<Object, Object>)
+                        cache.getNativeCache(), cache.getName(), tags);
+            }
+        };
+    }
+
+    static Object copy(Object value) {
+        if (value instanceof UserDto userDto) {
+            UserDto copy = new UserDto();
+            copy.setId(userDto.getId());
+            copy.setFullName(userDto.getFullName());
+            copy.setTitle(userDto.getTitle());
+            copy.setAge(userDto.getAge());
+            return copy;
+        }
+        if (value instanceof UserBookResponse response) {
+            return UserBookResponse.builder()
+                    .userId(response.getUserId())
+                    .booksIdList(response.getBooksIdList() == null ? null : new ArrayList<>(response.getBooksIdList()))
+                    .build();
+        }
+        throw new IllegalArgumentException("No cache copy for " + value.getClass().getName());
+    }
+}
@@ -0,0 +1,15 @@
+package com.edu.ulab.app.config;
+
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class CacheNames {
+    /**
+     * Пользователи по идентификатору.
+     */
+    public static final String USERS = "users";
+    /**
+     * Идентификаторы книг пользователя по идентификатору пользователя.
+     */
+    public static final String USER_BOOKS = "userBooks";
+}
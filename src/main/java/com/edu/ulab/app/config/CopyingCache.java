@@ -0,0 +1,84 @@
+package com.edu.ulab.app.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.function.UnaryOperator;
+
+/**
+ * Кэш, который хранит и отдаёт копии значений. DTO изменяемы, и без копий вызывающий, поменявший
+ * полученный объект, поменял бы его и в кэше для всех остальных.
+ */
+class CopyingCache implements Cache {
+    private final Cache delegate;
+    private final UnaryOperator<Object> copier;
+
+    CopyingCache(Cache delegate, UnaryOperator<Object> copier) {
+        this.delegate = delegate;
+        this.copier = copier;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        return wrapper == null ? null : new SimpleValueWrapper(copy(wrapper.get()));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        return (T) copy(delegate.get(key, type));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return (T) copy(delegate.get(key, () -> (T) copy(valueLoader.call())));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, copy(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, copy(value));
+        return existing == null ? null : new SimpleValueWrapper(copy(existing.get()));
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    private Object copy(Object value) {
+        return value == null ? null : copier.apply(value);
+    }
+}
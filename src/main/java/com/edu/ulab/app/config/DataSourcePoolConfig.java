@@ -0,0 +1,40 @@
+package com.edu.ulab.app.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Пул соединений HikariCP.
+ * <p>
+ * Размер пула по умолчанию считается от числа ядер по формуле HikariCP {@code ядра * 2 + 1}: запросов, которые
+ * реально выполняются одновременно, не больше, чем ядер у базы, а лишние соединения только добавляют
+ * переключений контекста. {@code app.datasource.pool-size} задаёт размер явно, остальные параметры пула
+ * (таймауты, порог утечек, свойства драйвера) берутся из {@code spring.datasource.hikari} и применяются поверх.
+ * Метрики {@code hikaricp.connections.*} (активные, ожидающие, время получения и удержания соединения)
+ * регистрирует Spring Boot Actuator.
+ */
+@Slf4j
+@Configuration
+public class DataSourcePoolConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties,
+                                       @Value("${app.datasource.pool-size:0}") int poolSize) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setMaximumPoolSize(poolSize(poolSize, Runtime.getRuntime().availableProcessors()));
+        log.info("Connection pool size {}", dataSource.getMaximumPoolSize());
+        return dataSource;
+    }
+
+    static int poolSize(int configured, int cores) {
+        return configured > 0 ? configured : cores * 2 + 1;
+    }
+}
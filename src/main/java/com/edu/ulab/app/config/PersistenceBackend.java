@@ -0,0 +1,56 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.service.impl.BookServiceImpl;
+import com.edu.ulab.app.service.impl.BookServiceImplStorage;
+import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
+import com.edu.ulab.app.service.impl.UserServiceImpl;
+import com.edu.ulab.app.service.impl.UserServiceImplStorage;
+import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Реализация сервисов, с которой работает фасад. Выбирается свойством {@code app.persistence.backend}.
+ * <p>
+ * Выбор влияет только на фасад: бины всех реализаций, источник данных, Liquibase и менеджер транзакций JPA
+ * создаются при любом бэкенде, поэтому и с {@link #STORAGE} приложению для старта нужна доступная PostgreSQL.
+ */
+public enum PersistenceBackend {
+    JPA(UserServiceImpl.class, BookServiceImpl.class),
+    JDBC(UserServiceImplTemplate.class, BookServiceImplTemplate.class),
+    STORAGE(UserServiceImplStorage.class, BookServiceImplStorage.class);
+
+    private final Class<?> userServiceClass;
+    private final Class<?> bookServiceClass;
+
+    PersistenceBackend(Class<?> userServiceClass, Class<?> bookServiceClass) {
+        this.userServiceClass = userServiceClass;
+        this.bookServiceClass = bookServiceClass;
+    }
+
+    public String userServiceBeanName() {
+        return StringUtils.uncapitalize(userServiceClass.getSimpleName());
+    }
+
+    public String bookServiceBeanName() {
+        return StringUtils.uncapitalize(bookServiceClass.getSimpleName());
+    }
+
+    /**
+     * Бэкенд, которому принадлежит класс реализации сервиса.
+     */
+    public static Optional<PersistenceBackend> ofServiceClass(Class<?> serviceClass) {
+        return Arrays.stream(values())
+                .filter(backend -> backend.userServiceClass == serviceClass || backend.bookServiceClass == serviceClass)
+                .findFirst();
+    }
+
+    /**
+     * Имя для свойств и тегов метрик.
+     */
+    public String tagValue() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,44 @@
+package com.edu.ulab.app.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Связывает фасад с выбранной реализацией сервисов.
+ * <p>
+ * Бины всех реализаций создаются как обычно, а имена {@value #FACADE_USER_SERVICE} и {@value #FACADE_BOOK_SERVICE}
+ * регистрируются псевдонимами бинов выбранного бэкенда. Псевдоним, а не отдельный бин, нужен для того,
+ * чтобы фасад получил тот же прокси с кэшем и транзакциями, а не обёрнутый повторно.
+ */
+@Slf4j
+@Configuration
+public class PersistenceBackendConfig {
+    public static final String BACKEND_PROPERTY = "app.persistence.backend";
+    public static final String FACADE_USER_SERVICE = "facadeUserService";
+    public static final String FACADE_BOOK_SERVICE = "facadeBookService";
+
+    @Bean
+    public static BeanDefinitionRegistryPostProcessor persistenceBackendAliases(Environment environment) {
+        PersistenceBackend backend = Binder.get(environment)
+                .bind(BACKEND_PROPERTY, PersistenceBackend.class)
+                .orElse(PersistenceBackend.JDBC);
+        return new BeanDefinitionRegistryPostProcessor() {
+            @Override
+            public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) {
+                log.info("Facade persistence backend: {}", backend.tagValue());
+                registry.registerAlias(backend.userServiceBeanName(), FACADE_USER_SERVICE);
+                registry.registerAlias(backend.bookServiceBeanName(), FACADE_BOOK_SERVICE);
+            }
+
+            @Override
+            public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.edu.ulab.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.purge")
+public class PurgeProperties {
+    /**
+     * Число пользователей, удаляемых одной транзакцией.
+     */
+    private int chunkSize = 500;
+    /**
+     * Число потоков, выполняющих массовое удаление.
+     */
+    private int poolSize = 2;
+    /**
+     * Сколько запросов на удаление может ждать свободного потока; сверх этого запросы отклоняются.
+     */
+    private int queueCapacity = 100;
+    /**
+     * Сколько хранится состояние завершённого удаления для запросов статуса.
+     */
+    private Duration jobTtl = Duration.ofHours(1);
+}
@@ -0,0 +1,41 @@
+package com.edu.ulab.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class UserCacheProperties {
+    /**
+     * Кэш пользователей: ограничен числом записей.
+     */
+    private Users users = new Users(10_000, Duration.ofMinutes(10));
+    /**
+     * Кэш книг пользователя: вес записи равен числу книг плюс 1.
+     */
+    private UserBooks userBooks = new UserBooks(1_000_000, Duration.ofMinutes(10));
+
+    @Data
+    public static class Users {
+        private long maximumSize;
+        private Duration ttl;
+
+        public Users(long maximumSize, Duration ttl) {
+            this.maximumSize = maximumSize;
+            this.ttl = ttl;
+        }
+    }
+
+    @Data
+    public static class UserBooks {
+        private long maximumWeight;
+        private Duration ttl;
+
+        public UserBooks(long maximumWeight, Duration ttl) {
+            this.maximumWeight = maximumWeight;
+            this.ttl = ttl;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.edu.ulab.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBooksDto {
+    private UserDto user;
+    private List<BookDto> books;
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.*;
 
@@ -15,8 +16,8 @@ import javax.persistence.*;
 @Table(name = "book", schema = "ulab_edu")
 public class Book {
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequence")
-    @SequenceGenerator(name = "sequence", sequenceName = "sequence", allocationSize = 100)
+    @GeneratedValue(generator = "sequence")
+    @GenericGenerator(name = "sequence", strategy = "com.edu.ulab.app.id.SequenceIdGenerator")
     private Integer id;
 
     @Column(nullable = false)
@@ -28,6 +29,10 @@ public class Book {
     @Column(nullable = false)
     private long pageCount;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "person_id", nullable = false)
     private Person person;
@@ -2,6 +2,7 @@ package com.edu.ulab.app.entity;
 
 
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.*;
 import java.util.Set;
@@ -14,8 +15,8 @@ import java.util.Set;
 @Table(name = "person", schema = "ulab_edu")
 public class Person {
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequence")
-    @SequenceGenerator(name = "sequence", sequenceName = "sequence", allocationSize = 100)
+    @GeneratedValue(generator = "sequence")
+    @GenericGenerator(name = "sequence", strategy = "com.edu.ulab.app.id.SequenceIdGenerator")
     private Integer id;
 
     @Column(nullable = false)
@@ -30,6 +31,10 @@ public class Person {
 //    @Column(nullable = false)
 //    private int count;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @OneToMany(mappedBy = "person", cascade = {
             CascadeType.MERGE,
             CascadeType.PERSIST,
@@ -0,0 +1,10 @@
+package com.edu.ulab.app.exception;
+
+/**
+ * Запрос не прошёл проверку и не может быть выполнен в таком виде.
+ */
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.edu.ulab.app.exception;
+
+/**
+ * Операция не завершилась за отведённое время, и её результат неизвестен: она может ещё завершиться.
+ */
+public class OutcomeUnknownException extends RuntimeException {
+    public OutcomeUnknownException(String message) {
+        super(message);
+    }
+}
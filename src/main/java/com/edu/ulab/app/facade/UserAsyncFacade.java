@@ -0,0 +1,80 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.config.AsyncConfig;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Асинхронное создание пользователя с книгами на ограниченном пуле {@link AsyncConfig#CREATE_EXECUTOR}.
+ * <p>
+ * Преобразование запроса в DTO и сохранение пользователя с книгами через {@link UserDataFacade#saveUserWithBooks}
+ * выполняются одной задачей пула: запрос занимает одно место в очереди и не встаёт в неё второй раз между
+ * стадиями. Вставка пользователя и пакетная вставка книг остаются одной транзакцией, иначе ошибка в книгах
+ * оставляла бы пользователя без них. Вызывающий поток только ставит задачу в очередь; при заполненной очереди
+ * сразу выбрасывается {@link TaskRejectedException}. Если возвращённый результат отменён до того, как задача
+ * взята из очереди, пользователь не создаётся.
+ */
+@Slf4j
+@Component
+public class UserAsyncFacade {
+    private final UserDataFacade userDataFacade;
+    private final UserMapper userMapper;
+    private final BookMapper bookMapper;
+    private final Executor executor;
+
+    public UserAsyncFacade(UserDataFacade userDataFacade,
+                           UserMapper userMapper,
+                           BookMapper bookMapper,
+                           @Qualifier(AsyncConfig.CREATE_EXECUTOR) Executor executor) {
+        this.userDataFacade = userDataFacade;
+        this.userMapper = userMapper;
+        this.bookMapper = bookMapper;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<UserBookResponse> createUserWithBooks(UserBookRequest userBookRequest) {
+        CompletableFuture<UserBookResponse> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            if (result.isDone()) {
+                log.debug("User creation cancelled before start");
+                return;
+            }
+            try {
+                MappedRequest mapped = map(userBookRequest);
+                result.complete(userDataFacade.saveUserWithBooks(mapped.user(), mapped.books()));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private MappedRequest map(UserBookRequest userBookRequest) {
+        UserDto userDto = userMapper.userRequestToUserDto(userBookRequest.getUserRequest());
+        List<BookDto> bookDtos = userBookRequest.getBookRequests() == null
+                ? List.of()
+                : userBookRequest.getBookRequests()
+                .stream()
+                .filter(Objects::nonNull)
+                .map(bookMapper::bookRequestToBookDto)
+                .toList();
+        log.debug("Mapped user request with {} books", bookDtos.size());
+        return new MappedRequest(userDto, bookDtos);
+    }
+
+    private record MappedRequest(UserDto user, List<BookDto> books) {
+    }
+}
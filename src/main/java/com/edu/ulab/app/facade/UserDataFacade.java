@@ -1,30 +1,48 @@
 package com.edu.ulab.app.facade;
 
+import com.edu.ulab.app.config.CacheNames;
+import com.edu.ulab.app.config.PersistenceBackendConfig;
 import com.edu.ulab.app.dto.BookDto;
 import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.BadRequestException;
+import com.edu.ulab.app.exception.NotFoundException;
 import com.edu.ulab.app.mapper.BookMapper;
 import com.edu.ulab.app.mapper.UserMapper;
 
-import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
-import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import com.edu.ulab.app.retry.RetryOnConflict;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
 import com.edu.ulab.app.web.request.UserBookRequest;
 import com.edu.ulab.app.web.response.UserBookResponse;
+import com.edu.ulab.app.web.response.UserPageResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 public class UserDataFacade {
-    private final UserServiceImplTemplate userService;
-    private final BookServiceImplTemplate bookService;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final UserService userService;
+    private final BookService bookService;
     private final UserMapper userMapper;
     private final BookMapper bookMapper;
 
-    public UserDataFacade(UserServiceImplTemplate userService,
-                          BookServiceImplTemplate bookService,
+    public UserDataFacade(@Qualifier(PersistenceBackendConfig.FACADE_USER_SERVICE) UserService userService,
+                          @Qualifier(PersistenceBackendConfig.FACADE_BOOK_SERVICE) BookService bookService,
                           UserMapper userMapper,
                           BookMapper bookMapper) {
         this.userService = userService;
@@ -33,25 +51,32 @@ public class UserDataFacade {
         this.bookMapper = bookMapper;
     }
 
+    /**
+     * На INFO пишется одна строка с числом книг, сам запрос — только на DEBUG:
+     * с сотнями книг его строковое представление дороже остальной работы фасада.
+     */
+    @Transactional
     public UserBookResponse createUserWithBooks(UserBookRequest userBookRequest) {
-        log.info("Got user book create request: {}", userBookRequest);
+        log.debug("Got user book create request: {}", userBookRequest);
         UserDto userDto = userMapper.userRequestToUserDto(userBookRequest.getUserRequest());
-        log.info("Mapped user request: {}", userDto);
 
+        return saveUserWithBooks(userDto, bookDtos(userBookRequest));
+    }
+
+    /**
+     * Сохраняет уже преобразованные из запроса пользователя и книги: пользователя, затем все книги одной пачкой.
+     */
+    @Transactional
+    public UserBookResponse saveUserWithBooks(UserDto userDto, List<BookDto> bookDtos) {
         UserDto createdUser = userService.createUser(userDto);
-        log.info("Created user: {}", createdUser);
+        bookDtos.forEach(bookDto -> bookDto.setUserId(createdUser.getId()));
 
-        List<Long> bookIdList = userBookRequest.getBookRequests()
+        List<Long> bookIdList = bookService.createBooks(bookDtos)
                 .stream()
-                .filter(Objects::nonNull)
-                .map(bookMapper::bookRequestToBookDto)
-                .peek(bookDto -> bookDto.setUserId(createdUser.getId()))
-                .peek(mappedBookDto -> log.info("mapped book: {}", mappedBookDto))
-                .map(bookService::createBook)
-                .peek(createdBook -> log.info("Created book: {}", createdBook))
                 .map(BookDto::getId)
                 .toList();
-        log.info("Collected book ids: {}", bookIdList);
+        log.info("Created user {} with {} books", createdUser.getId(), bookIdList.size());
+        log.debug("Created book ids: {}", bookIdList);
 
         return UserBookResponse.builder()
                 .userId(createdUser.getId())
@@ -59,14 +84,126 @@ public class UserDataFacade {
                 .build();
     }
 
+    /**
+     * Обновляет пользователя и приводит его книги к списку из запроса, затрагивая только изменившиеся строки:
+     * книги без идентификатора создаются, книги с изменёнными полями обновляются, отсутствующие в запросе
+     * удаляются. Каждая группа изменений выполняется одной пачкой, всё вместе — в одной транзакции.
+     * Если параллельный запрос успел изменить те же строки, транзакция повторяется целиком с перечитанными данными.
+     *
+     * @throws NotFoundException если пользователя нет или книга из запроса принадлежит не ему
+     * @throws BadRequestException если не указан id пользователя или одна и та же книга указана в запросе дважды
+     * @throws org.springframework.dao.OptimisticLockingFailureException если конфликт не разрешился за все попытки
+     */
+    @RetryOnConflict
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.USERS, key = "#userBookRequest.userRequest.id"),
+            @CacheEvict(cacheNames = CacheNames.USER_BOOKS, key = "#userBookRequest.userRequest.id")})
     public UserBookResponse updateUserWithBooks(UserBookRequest userBookRequest) {
-        return null;
+        log.debug("Got user book update request: {}", userBookRequest);
+        UserDto userDto = userMapper.userRequestToUserDto(userBookRequest.getUserRequest());
+        Long userId = userDto.getId();
+        if (userId == null) {
+            throw new BadRequestException("User id is required for update");
+        }
+
+        // сравнение с кэшем могло бы пропустить настоящее изменение, если кэш устарел
+        if (!userService.getUserByIdUncached(userId).equals(userDto)) {
+            userService.updateUser(userDto);
+            log.debug("Updated user: {}", userDto);
+        }
+
+        Map<Long, BookDto> storedBooks = bookService.getBooksByUserId(userId)
+                .stream()
+                .collect(Collectors.toMap(BookDto::getId, Function.identity()));
+
+        List<BookDto> requestedBooks = bookDtos(userBookRequest);
+        requestedBooks.forEach(bookDto -> bookDto.setUserId(userId));
+
+        List<BookDto> booksToCreate = new ArrayList<>();
+        List<BookDto> booksToUpdate = new ArrayList<>();
+        Set<Long> keptBookIds = new HashSet<>();
+        for (BookDto bookDto : requestedBooks) {
+            if (bookDto.getId() == null) {
+                booksToCreate.add(bookDto);
+                continue;
+            }
+            BookDto storedBook = storedBooks.get(bookDto.getId());
+            if (storedBook == null) {
+                throw new NotFoundException("Book with id " + bookDto.getId() + " not found for user with id " + userId);
+            }
+            if (!keptBookIds.add(bookDto.getId())) {
+                throw new BadRequestException("Book with id " + bookDto.getId() + " is listed more than once");
+            }
+            if (!storedBook.equals(bookDto)) {
+                booksToUpdate.add(bookDto);
+            }
+        }
+        List<Long> bookIdsToDelete = storedBooks.keySet()
+                .stream()
+                .filter(bookId -> !keptBookIds.contains(bookId))
+                .toList();
+
+        if (!booksToCreate.isEmpty()) {
+            List<BookDto> createdBooks = bookService.createBooks(booksToCreate);
+            for (int i = 0; i < createdBooks.size(); i++) {
+                booksToCreate.get(i).setId(createdBooks.get(i).getId());
+            }
+        }
+        if (!booksToUpdate.isEmpty()) {
+            bookService.updateBooks(booksToUpdate);
+        }
+        if (!bookIdsToDelete.isEmpty()) {
+            bookService.deleteBooksByIds(bookIdsToDelete);
+        }
+        log.info("Books of user {}: created {}, updated {}, deleted {}, unchanged {}", userId,
+                booksToCreate.size(), booksToUpdate.size(), bookIdsToDelete.size(),
+                keptBookIds.size() - booksToUpdate.size());
+
+        return UserBookResponse.builder()
+                .userId(userId)
+                .booksIdList(requestedBooks.stream().map(BookDto::getId).toList())
+                .build();
     }
 
     public UserBookResponse getUserWithBooks(Long userId) {
-        return null;
+        UserBookResponse response = userService.getUserWithBooks(userId);
+        log.info("Found user {} with {} books", userId, response.getBooksIdList().size());
+        return response;
+    }
+
+    /**
+     * Страница пользователей после {@code afterId}. Размер страницы ограничен {@link #MAX_PAGE_SIZE}.
+     */
+    public UserPageResponse getUsers(long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<UserDto> users = userService.getUsersAfter(afterId, pageSize);
+        log.info("Found {} users after id {}", users.size(), afterId);
+        return UserPageResponse.builder()
+                .users(users.stream().map(userMapper::userDtoToUserResponse).toList())
+                .nextAfterId(users.size() == pageSize ? users.get(users.size() - 1).getId() : null)
+                .build();
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.USERS, key = "#userId"),
+            @CacheEvict(cacheNames = CacheNames.USER_BOOKS, key = "#userId")})
     public void deleteUserWithBooks(Long userId) {
+        log.info("Got user book delete request: userId {}", userId);
+        userService.deleteUserById(userId);
+    }
+
+    /**
+     * Книги из запроса. Отсутствующий список, как и пустой, означает пользователя без книг.
+     */
+    private List<BookDto> bookDtos(UserBookRequest userBookRequest) {
+        if (userBookRequest.getBookRequests() == null) {
+            return List.of();
+        }
+        return userBookRequest.getBookRequests()
+                .stream()
+                .filter(Objects::nonNull)
+                .map(bookMapper::bookRequestToBookDto)
+                .toList();
     }
 }
@@ -0,0 +1,59 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.config.PersistenceBackendConfig;
+import com.edu.ulab.app.dto.UserBooksDto;
+import com.edu.ulab.app.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Потоковая выгрузка всех пользователей с книгами.
+ * <p>
+ * Сервис читает строки курсором и отдаёт пользователей по одному, фасад сразу пишет каждого строкой NDJSON,
+ * поэтому в памяти одновременно не больше одного пользователя с его книгами, а первые строки уходят
+ * клиенту до окончания запроса к базе.
+ */
+@Slf4j
+@Component
+public class UserExportFacade {
+    private final UserService userService;
+    private final ObjectWriter userBooksWriter;
+
+    public UserExportFacade(@Qualifier(PersistenceBackendConfig.FACADE_USER_SERVICE) UserService userService,
+                            ObjectMapper objectMapper) {
+        this.userService = userService;
+        this.userBooksWriter = objectMapper.writerFor(UserBooksDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+    }
+
+    /**
+     * Пишет пользователей с книгами в {@code out}. Поток {@code out} не закрывается.
+     */
+    public void exportUsersWithBooks(OutputStream out) throws IOException {
+        long[] exported = {0};
+        try (SequenceWriter writer = userBooksWriter.writeValues(out)) {
+            userService.exportUsersWithBooks(userBooks -> {
+                try {
+                    writer.write(userBooks);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                exported[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+        log.info("Exported {} users", exported[0]);
+    }
+}
@@ -0,0 +1,273 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.config.PersistenceBackendConfig;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.edu.ulab.app.web.response.UserImportResult;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Потоковый импорт пользователей с книгами.
+ * <p>
+ * Вход — NDJSON или JSON-массив {@link UserBookRequest}, который читается по одной записи через
+ * {@link MappingIterator}. Записи копятся пачками по {@code app.import.chunk-size}; пачка сохраняется
+ * одной транзакцией пакетными вставками пользователей и книг. Если пачка не сохранилась, её записи
+ * повторяются по одной, чтобы ошибка одной записи не теряла остальные. Хранилище без транзакций
+ * не откатывает уже вставленное, поэтому пользователь, переживший неудачную пачку, не создаётся заново:
+ * ему досоздаются только недостающие книги. Результат по каждой записи
+ * пишется строкой NDJSON сразу после обработки пачки, так что в памяти одновременно не больше одной пачки.
+ * Ошибка разбора входа прерывает импорт: после неё положение в потоке не определено.
+ */
+@Slf4j
+@Component
+public class UserImportFacade {
+    private final UserService userService;
+    private final BookService bookService;
+    private final UserDataFacade userDataFacade;
+    private final UserMapper userMapper;
+    private final BookMapper bookMapper;
+    private final TransactionOperations transactionOperations;
+    private final ObjectReader requestReader;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public UserImportFacade(@Qualifier(PersistenceBackendConfig.FACADE_USER_SERVICE) UserService userService,
+                            @Qualifier(PersistenceBackendConfig.FACADE_BOOK_SERVICE) BookService bookService,
+                            UserDataFacade userDataFacade,
+                            UserMapper userMapper,
+                            BookMapper bookMapper,
+                            TransactionOperations transactionOperations,
+                            ObjectMapper objectMapper,
+                            @Value("${app.import.chunk-size:500}") int chunkSize) {
+        this.userService = userService;
+        this.bookService = bookService;
+        this.userDataFacade = userDataFacade;
+        this.userMapper = userMapper;
+        this.bookMapper = bookMapper;
+        this.transactionOperations = transactionOperations;
+        this.requestReader = objectMapper.readerFor(UserBookRequest.class);
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Читает записи из {@code in} и пишет результат по каждой в {@code out}. Поток {@code out} не закрывается.
+     */
+    public void importUsersWithBooks(InputStream in, OutputStream out) throws IOException {
+        long index = 0;
+        long failed = 0;
+        try (MappingIterator<UserBookRequest> requests = requestReader.readValues(in);
+             SequenceWriter results = objectMapper.writerFor(UserImportResult.class)
+                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .withRootValueSeparator("\n")
+                     .writeValues(out)) {
+            List<UserBookRequest> chunk = new ArrayList<>(chunkSize);
+            while (true) {
+                UserBookRequest request;
+                try {
+                    if (!requests.hasNextValue()) {
+                        break;
+                    }
+                    request = requests.nextValue();
+                } catch (JsonProcessingException e) {
+                    failed += writeChunk(results, importChunk(chunk, index - chunk.size()));
+                    chunk.clear();
+                    results.write(failure(index, "Malformed input: " + e.getOriginalMessage()));
+                    failed++;
+                    log.warn("Import stopped at record {}: {}", index, e.getOriginalMessage());
+                    break;
+                }
+                chunk.add(request);
+                index++;
+                if (chunk.size() == chunkSize) {
+                    failed += writeChunk(results, importChunk(chunk, index - chunk.size()));
+                    out.flush();
+                    chunk.clear();
+                }
+            }
+            failed += writeChunk(results, importChunk(chunk, index - chunk.size()));
+        }
+        out.flush();
+        log.info("Imported {} records, {} failed", index - failed, failed);
+    }
+
+    private static int writeChunk(SequenceWriter results, List<UserImportResult> chunkResults) throws IOException {
+        int failed = 0;
+        for (UserImportResult result : chunkResults) {
+            results.write(result);
+            if (result.getError() != null) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    private List<UserImportResult> importChunk(List<UserBookRequest> chunk, long firstIndex) {
+        if (chunk.isEmpty()) {
+            return List.of();
+        }
+        Long[] insertedUserIds = new Long[chunk.size()];
+        try {
+            return transactionOperations.execute(status -> insertChunk(chunk, firstIndex, insertedUserIds));
+        } catch (RuntimeException e) {
+            log.warn("Chunk of {} records from {} failed, importing one by one: {}",
+                    chunk.size(), firstIndex, e.getMessage());
+            List<UserImportResult> results = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                Long userId = insertedUserIds[i];
+                results.add(userId != null && userExists(userId)
+                        ? resumeOne(chunk.get(i), firstIndex + i, userId)
+                        : importOne(chunk.get(i), firstIndex + i));
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Сохраняет пачку двумя пакетными вставками: все пользователи, затем все книги.
+     * Записи без пользователя в пачку не попадают и сразу получают ошибку.
+     * Идентификаторы созданных пользователей запоминаются в {@code insertedUserIds} по номеру записи в пачке
+     * до вставки книг, чтобы повтор после ошибки знал, кого могли не откатить.
+     */
+    private List<UserImportResult> insertChunk(List<UserBookRequest> chunk, long firstIndex, Long[] insertedUserIds) {
+        List<UserImportResult> results = new ArrayList<>(chunk.size());
+        List<Integer> userPositions = new ArrayList<>(chunk.size());
+        List<UserDto> userDtos = new ArrayList<>(chunk.size());
+        List<List<BookDto>> userBookDtos = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            UserBookRequest request = chunk.get(i);
+            if (request == null || request.getUserRequest() == null) {
+                results.add(failure(firstIndex + i, "User is required"));
+                continue;
+            }
+            results.add(UserImportResult.builder().index(firstIndex + i).build());
+            userPositions.add(i);
+            userDtos.add(userMapper.userRequestToUserDto(request.getUserRequest()));
+            userBookDtos.add(bookDtos(request));
+        }
+
+        List<UserDto> createdUsers = userService.createUsers(userDtos);
+        for (int i = 0; i < createdUsers.size(); i++) {
+            insertedUserIds[userPositions.get(i)] = createdUsers.get(i).getId();
+        }
+        List<BookDto> bookDtos = new ArrayList<>();
+        for (int i = 0; i < createdUsers.size(); i++) {
+            Long userId = createdUsers.get(i).getId();
+            userBookDtos.get(i).forEach(bookDto -> bookDto.setUserId(userId));
+            bookDtos.addAll(userBookDtos.get(i));
+        }
+        List<BookDto> createdBooks = bookDtos.isEmpty() ? List.of() : bookService.createBooks(bookDtos);
+
+        int user = 0;
+        int book = 0;
+        for (UserImportResult result : results) {
+            if (result.getError() != null) {
+                continue;
+            }
+            int bookCount = userBookDtos.get(user).size();
+            result.setUserId(createdUsers.get(user).getId());
+            result.setBooksIdList(createdBooks.subList(book, book + bookCount)
+                    .stream()
+                    .map(BookDto::getId)
+                    .toList());
+            user++;
+            book += bookCount;
+        }
+        return results;
+    }
+
+    private UserImportResult importOne(UserBookRequest request, long index) {
+        if (request == null || request.getUserRequest() == null) {
+            return failure(index, "User is required");
+        }
+        try {
+            UserBookResponse response = userDataFacade.createUserWithBooks(request);
+            return UserImportResult.builder()
+                    .index(index)
+                    .userId(response.getUserId())
+                    .booksIdList(response.getBooksIdList())
+                    .build();
+        } catch (RuntimeException e) {
+            return failure(index, e.getMessage());
+        }
+    }
+
+    /**
+     * Досоздаёт книги пользователя, оставшегося от неудачной пачки. Книги вставляются по порядку,
+     * поэтому сохранённые книги нового пользователя — начало списка из запроса.
+     */
+    private UserImportResult resumeOne(UserBookRequest request, long index, Long userId) {
+        try {
+            List<Long> booksIdList = transactionOperations.execute(status -> {
+                List<BookDto> requested = bookDtos(request);
+                List<Long> bookIds = new ArrayList<>(bookService.getBooksByUserId(userId)
+                        .stream()
+                        .map(BookDto::getId)
+                        .toList());
+                List<BookDto> missing = requested.subList(Math.min(bookIds.size(), requested.size()), requested.size());
+                if (!missing.isEmpty()) {
+                    missing.forEach(bookDto -> bookDto.setUserId(userId));
+                    bookService.createBooks(missing).forEach(bookDto -> bookIds.add(bookDto.getId()));
+                }
+                return bookIds;
+            });
+            return UserImportResult.builder()
+                    .index(index)
+                    .userId(userId)
+                    .booksIdList(booksIdList)
+                    .build();
+        } catch (RuntimeException e) {
+            return failure(index, e.getMessage());
+        }
+    }
+
+    private boolean userExists(Long userId) {
+        try {
+            userService.getUserByIdUncached(userId);
+            return true;
+        } catch (NotFoundException e) {
+            return false;
+        }
+    }
+
+    private List<BookDto> bookDtos(UserBookRequest request) {
+        return request.getBookRequests() == null
+                ? List.of()
+                : request.getBookRequests()
+                .stream()
+                .filter(Objects::nonNull)
+                .map(bookMapper::bookRequestToBookDto)
+                .toList();
+    }
+
+    private static UserImportResult failure(long index, String error) {
+        return UserImportResult.builder()
+                .index(index)
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.config.AsyncConfig;
+import com.edu.ulab.app.config.PersistenceBackendConfig;
+import com.edu.ulab.app.config.PurgeProperties;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.web.response.UserPurgeResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Массовое удаление пользователей с книгами в фоне.
+ * <p>
+ * {@link #startPurge} только ставит удаление в очередь пула {@link AsyncConfig#PURGE_EXECUTOR} и сразу возвращает
+ * идентификатор задачи, состояние которой затем читается через {@link #getPurgeJob}. Пока задача выполняется,
+ * она хранится бессрочно, после завершения — {@code app.purge.job-ttl}.
+ * Пользователи удаляются пачками по {@code app.purge.chunk-size}, каждая пачка — отдельной транзакцией
+ * из пары set-based запросов, поэтому блокировки не держатся на всё удаление, а ошибка в пачке
+ * не откатывает уже удалённые.
+ */
+@Slf4j
+@Component
+public class UserPurgeFacade {
+    private final UserService userService;
+    private final Executor executor;
+    private final int chunkSize;
+    private final Cache<String, PurgeJob> jobs;
+
+    public UserPurgeFacade(@Qualifier(PersistenceBackendConfig.FACADE_USER_SERVICE) UserService userService,
+                           @Qualifier(AsyncConfig.PURGE_EXECUTOR) Executor executor,
+                           PurgeProperties properties) {
+        this.userService = userService;
+        this.executor = executor;
+        this.chunkSize = properties.getChunkSize();
+        this.jobs = Caffeine.newBuilder()
+                .expireAfter(new PurgeJobExpiry(properties.getJobTtl()))
+                .build();
+    }
+
+    /**
+     * @throws TaskRejectedException если очередь пула удаления заполнена
+     */
+    public UserPurgeResponse startPurge(List<Long> userIds) {
+        log.info("Got user purge request: {} users", userIds.size());
+        List<Long> distinctIds = userIds.stream().distinct().toList();
+        String jobId = UUID.randomUUID().toString();
+        PurgeJob job = new PurgeJob(jobId, distinctIds.size(),
+                CompletableFuture.supplyAsync(() -> purge(distinctIds), executor));
+        jobs.put(jobId, job);
+        job.deleted().whenComplete((deleted, exc) -> jobs.put(jobId, job));
+        return job.toResponse();
+    }
+
+    public UserPurgeResponse getPurgeJob(String jobId) {
+        PurgeJob job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new NotFoundException("Purge job " + jobId + " not found");
+        }
+        return job.toResponse();
+    }
+
+    private int purge(List<Long> distinctIds) {
+        int deleted = 0;
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, distinctIds.size());
+            deleted += userService.deleteUsersByIds(distinctIds.subList(from, to));
+        }
+        log.info("Purged {} of {} users", deleted, distinctIds.size());
+        return deleted;
+    }
+
+    private record PurgeJob(String jobId, int requested, CompletableFuture<Integer> deleted) {
+        UserPurgeResponse toResponse() {
+            UserPurgeResponse.UserPurgeResponseBuilder response = UserPurgeResponse.builder()
+                    .jobId(jobId)
+                    .requested(requested);
+            if (!deleted.isDone()) {
+                return response.status(UserPurgeResponse.Status.RUNNING).build();
+            }
+            try {
+                return response.status(UserPurgeResponse.Status.DONE).deleted(deleted.join()).build();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                return response.status(UserPurgeResponse.Status.FAILED).error(cause.getMessage()).build();
+            }
+        }
+    }
+
+    /**
+     * Выполняющаяся задача не вытесняется, завершённая хранится {@code ttl} с момента завершения.
+     */
+    private record PurgeJobExpiry(Duration ttl) implements Expiry<String, PurgeJob> {
+        @Override
+        public long expireAfterCreate(String key, PurgeJob job, long currentTime) {
+            return job.deleted().isDone() ? ttl.toNanos() : Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, PurgeJob job, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, job, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, PurgeJob job, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.edu.ulab.app.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Раздаёт идентификаторы из блоков, зарезервированных в последовательности.
+ * <p>
+ * Значение {@code hi} последовательности резервирует диапазон {@code [hi * blockSize, (hi + 1) * blockSize)} —
+ * та же арифметика, что у hilo-оптимизатора Hibernate для {@code allocationSize = blockSize}, поэтому
+ * JPA и JDBC сервисы берут идентификаторы из одной последовательности без пересечений.
+ * Внутри блока идентификаторы выдаются без блокировок, за базой ходим только за новым блоком.
+ */
+public class BlockIdAllocator {
+    private static final Block EXHAUSTED = new Block(0, 0);
+
+    private final int blockSize;
+    private final AtomicReference<Block> current = new AtomicReference<>(EXHAUSTED);
+
+    public BlockIdAllocator(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.blockSize = blockSize;
+    }
+
+    public long nextId(SequenceBlockSource source) {
+        while (true) {
+            Block block = current.get();
+            long id = block.next.getAndIncrement();
+            if (id < block.end) {
+                return id;
+            }
+            refill(block, source);
+        }
+    }
+
+    public long[] nextIds(int count, SequenceBlockSource source) {
+        long[] ids = new long[count];
+        int filled = current.get().take(ids, 0, count);
+        return filled < count ? takeFromNewBlocks(ids, filled, source) : ids;
+    }
+
+    /**
+     * Идентификаторы из текущего блока без обращения к источнику, или null, если в блоке их не хватает.
+     * Для неблокирующих вызывающих: новый блок они получают сами и передают в {@link #nextIds}.
+     */
+    public long[] tryNextIds(int count) {
+        return current.get().tryTake(count);
+    }
+
+    private synchronized void refill(Block exhausted, SequenceBlockSource source) {
+        if (current.get() == exhausted) {
+            current.set(newBlock(source.nextValues(1)[0]));
+        }
+    }
+
+    /**
+     * Блок меняется только под той же блокировкой, что и в {@link #refill}, поэтому новый блок другого потока
+     * не затирается вместе с неразданными идентификаторами: сначала добирается текущий блок, и заменяется
+     * он, только если исчерпан.
+     */
+    private synchronized long[] takeFromNewBlocks(long[] ids, int filled, SequenceBlockSource source) {
+        int count = ids.length;
+        filled += current.get().take(ids, filled, count - filled);
+        if (filled < count) {
+            int blocks = (count - filled + blockSize - 1) / blockSize;
+            Block last = null;
+            for (long hi : source.nextValues(blocks)) {
+                last = newBlock(hi);
+                filled += last.take(ids, filled, count - filled);
+            }
+            if (filled < count) {
+                throw new IllegalStateException("Sequence returned fewer blocks than requested: " + blocks);
+            }
+            current.set(last);
+        }
+        return ids;
+    }
+
+    private Block newBlock(long hi) {
+        long start = hi * blockSize;
+        // hilo Hibernate не выдаёт 0, повторяем это поведение
+        return new Block(start == 0 ? 1 : start, start + blockSize);
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+
+        private int take(long[] ids, int offset, int wanted) {
+            long start = next.getAndAdd(wanted);
+            if (start >= end) {
+                return 0;
+            }
+            int taken = (int) Math.min(wanted, end - start);
+            for (int i = 0; i < taken; i++) {
+                ids[offset + i] = start + i;
+            }
+            return taken;
+        }
+
+        private long[] tryTake(int wanted) {
+            while (true) {
+                long start = next.get();
+                if (start + wanted > end) {
+                    return null;
+                }
+                if (next.compareAndSet(start, start + wanted)) {
+                    long[] ids = new long[wanted];
+                    for (int i = 0; i < wanted; i++) {
+                        ids[i] = start + i;
+                    }
+                    return ids;
+                }
+            }
+        }
+    }
+}
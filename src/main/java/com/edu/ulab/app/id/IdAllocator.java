@@ -0,0 +1,10 @@
+package com.edu.ulab.app.id;
+
+/**
+ * Выдаёт идентификаторы сущностей до вставки строки в базу.
+ */
+public interface IdAllocator {
+    long nextId();
+
+    long[] nextIds(int count);
+}
@@ -0,0 +1,9 @@
+package com.edu.ulab.app.id;
+
+/**
+ * Источник значений последовательности. Каждое значение резервирует отдельный блок идентификаторов.
+ */
+@FunctionalInterface
+public interface SequenceBlockSource {
+    long[] nextValues(int count);
+}
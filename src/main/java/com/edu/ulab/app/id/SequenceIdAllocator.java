@@ -0,0 +1,31 @@
+package com.edu.ulab.app.id;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link IdAllocator} для JDBC сервисов: блоки берутся из последовательности {@link SequenceIdGenerator#SEQUENCE_NAME}
+ * в соединении текущей транзакции.
+ */
+@Component
+public class SequenceIdAllocator implements IdAllocator {
+    private final BlockIdAllocator allocator = new BlockIdAllocator(SequenceIdGenerator.BLOCK_SIZE);
+    private final SequenceBlockSource source;
+
+    public SequenceIdAllocator(JdbcTemplate jdbcTemplate) {
+        this.source = count -> jdbcTemplate.queryForList(SequenceIdGenerator.NEXT_VALUES_SQL, Long.class, count)
+                .stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    @Override
+    public long nextId() {
+        return allocator.nextId(source);
+    }
+
+    @Override
+    public long[] nextIds(int count) {
+        return allocator.nextIds(count, source);
+    }
+}
@@ -0,0 +1,49 @@
+package com.edu.ulab.app.id;
+
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Генератор идентификаторов JPA сущностей поверх {@link BlockIdAllocator}.
+ * Делит последовательность с {@link SequenceIdAllocator}, которым пользуются JDBC сервисы.
+ */
+public class SequenceIdGenerator implements IdentifierGenerator {
+    public static final String SEQUENCE_NAME = "sequence";
+    public static final int BLOCK_SIZE = 100;
+    static final String NEXT_VALUES_SQL = "select nextval('" + SEQUENCE_NAME + "') from generate_series(1, ?)";
+
+    private final BlockIdAllocator allocator = new BlockIdAllocator(BLOCK_SIZE);
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return Math.toIntExact(allocator.nextId(count -> nextValues(session, count)));
+    }
+
+    private static long[] nextValues(SharedSessionContractImplementor session, int count) {
+        JdbcCoordinator jdbcCoordinator = session.getJdbcCoordinator();
+        PreparedStatement statement = jdbcCoordinator.getStatementPreparer().prepareStatement(NEXT_VALUES_SQL);
+        try {
+            statement.setInt(1, count);
+            ResultSet resultSet = jdbcCoordinator.getResultSetReturn().extract(statement);
+            long[] values = new long[count];
+            int i = 0;
+            while (resultSet.next()) {
+                values[i++] = resultSet.getLong(1);
+            }
+            return Arrays.copyOf(values, i);
+        } catch (SQLException e) {
+            throw session.getJdbcServices().getSqlExceptionHelper()
+                    .convert(e, "Could not get next values of sequence " + SEQUENCE_NAME, NEXT_VALUES_SQL);
+        } finally {
+            jdbcCoordinator.getLogicalConnection().getResourceRegistry().release(statement);
+            jdbcCoordinator.afterStatementExecution();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.edu.ulab.app.loader;
+
+/**
+ * Итог загрузки: число записанных пользователей и книг.
+ */
+public record LoadResult(long users, long books) {
+
+    LoadResult plus(long users, long books) {
+        return new LoadResult(this.users + users, this.books + books);
+    }
+}
@@ -0,0 +1,46 @@
+package com.edu.ulab.app.loader;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Загрузка файла через {@link CopyLoader} при старте приложения:
+ * <pre>
+ * java -jar app.jar --app.loader.file=users.ndjson --spring.main.web-application-type=none
+ * </pre>
+ * Без веб-сервера приложение завершается после загрузки.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.loader", name = "file")
+public class LoaderRunner implements ApplicationRunner {
+    private final CopyLoader copyLoader;
+    private final Path file;
+
+    public LoaderRunner(CopyLoader copyLoader,
+                        @Value("${app.loader.file}") Path file) {
+        this.copyLoader = copyLoader;
+        this.file = file;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        log.info("Loading users and books from {}", file);
+        long started = System.nanoTime();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            LoadResult result = copyLoader.load(in);
+            long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+            log.info("Loaded {} users and {} books from {} in {} ms ({} rows/s)", result.users(), result.books(),
+                    file, millis, (result.users() + result.books()) * 1000 / millis);
+        }
+    }
+}
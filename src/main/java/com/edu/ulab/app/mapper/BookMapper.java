@@ -2,6 +2,7 @@ package com.edu.ulab.app.mapper;
 
 import com.edu.ulab.app.dto.BookDto;
 import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.reactive.BookRow;
 import com.edu.ulab.app.web.request.BookRequest;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -13,7 +14,15 @@ public interface BookMapper {
 
     BookRequest bookDtoToBookRequest(BookDto bookDto);
 
+    @Mapping(target = "person.id", source = "userId")
     Book bookDtoToBook(BookDto bookDto);
 
+    @Mapping(target = "userId", source = "person.id")
     BookDto bookToBookDto(Book book);
+
+    @Mapping(target = "personId", source = "userId")
+    BookRow bookDtoToBookRow(BookDto bookDto);
+
+    @Mapping(target = "userId", source = "personId")
+    BookDto bookRowToBookDto(BookRow bookRow);
 }
@@ -2,7 +2,9 @@ package com.edu.ulab.app.mapper;
 
 import com.edu.ulab.app.dto.UserDto;
 import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.reactive.PersonRow;
 import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserResponse;
 import org.mapstruct.Mapper;
 
 @Mapper(componentModel = "spring")
@@ -14,4 +16,10 @@ public interface UserMapper {
     Person userDtoToPerson(UserDto userDto);
 
     UserDto personToUserDto(Person person);
+
+    PersonRow userDtoToPersonRow(UserDto userDto);
+
+    UserDto personRowToUserDto(PersonRow personRow);
+
+    UserResponse userDtoToUserResponse(UserDto userDto);
 }
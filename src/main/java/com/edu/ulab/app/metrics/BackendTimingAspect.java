@@ -0,0 +1,60 @@
+package com.edu.ulab.app.metrics;
+
+import com.edu.ulab.app.config.PersistenceBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Таймер {@value #TIMER_NAME} на каждый вызов {@code UserService} и {@code BookService}.
+ * <p>
+ * Теги: {@code backend} — бэкенд реализации (или {@code unknown}), {@code service} — интерфейс сервиса,
+ * {@code operation} — метод, {@code exception} — класс исключения или {@code none}.
+ * Таймеры пишутся для всех реализаций, а не только выбранной для фасада, чтобы бэкенды можно было сравнивать.
+ */
+@Aspect
+@Component
+public class BackendTimingAspect {
+    public static final String TIMER_NAME = "app.persistence.operation";
+
+    private final MeterRegistry meterRegistry;
+
+    public BackendTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(* com.edu.ulab.app.service.UserService+.*(..)) && !execution(* java.lang.Object.*(..))")
+    public Object timeUserService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "user");
+    }
+
+    @Around("execution(* com.edu.ulab.app.service.BookService+.*(..)) && !execution(* java.lang.Object.*(..))")
+    public Object timeBookService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "book");
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String service) throws Throwable {
+        String backend = PersistenceBackend.ofServiceClass(AopUtils.getTargetClass(joinPoint.getTarget()))
+                .map(PersistenceBackend::tagValue)
+                .orElse("unknown");
+        String exception = "none";
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(TIMER_NAME)
+                    .tag("backend", backend)
+                    .tag("service", service)
+                    .tag("operation", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.edu.ulab.app.metrics;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Оборачивает {@link DataSource} в прокси datasource-proxy, который передаёт каждое выполнение
+ * в {@link RoundTripCounter}.
+ */
+@Configuration
+public class DataSourceMetricsConfig {
+
+    @Bean
+    public static RoundTripCounter roundTripCounter() {
+        return new RoundTripCounter();
+    }
+
+    @Bean
+    public static BeanPostProcessor roundTripCountingDataSource(RoundTripCounter roundTripCounter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(roundTripCounter)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
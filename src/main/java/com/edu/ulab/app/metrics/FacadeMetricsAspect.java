@@ -0,0 +1,79 @@
+package com.edu.ulab.app.metrics;
+
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Метрики операций фасадов ({@code UserDataFacade}, {@code UserPurgeFacade}):
+ * <ul>
+ *     <li>{@value #TIMER_NAME} — время операции с тегами {@code operation} и {@code exception};</li>
+ *     <li>{@value #BOOKS_SUMMARY_NAME} — число книг в запросе или ответе;</li>
+ *     <li>{@value #ROUND_TRIPS_SUMMARY_NAME} — число обращений к базе за операцию.</li>
+ * </ul>
+ * Перцентили и гистограммы включаются настройками {@code management.metrics.distribution}.
+ */
+@Aspect
+@Component
+public class FacadeMetricsAspect {
+    public static final String TIMER_NAME = "app.facade.operation";
+    public static final String BOOKS_SUMMARY_NAME = "app.facade.books";
+    public static final String ROUND_TRIPS_SUMMARY_NAME = "app.facade.db.round-trips";
+
+    private final MeterRegistry meterRegistry;
+    private final RoundTripCounter roundTripCounter;
+
+    public FacadeMetricsAspect(MeterRegistry meterRegistry, RoundTripCounter roundTripCounter) {
+        this.meterRegistry = meterRegistry;
+        this.roundTripCounter = roundTripCounter;
+    }
+
+    @Around("execution(public * com.edu.ulab.app.facade.*Facade.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        String exception = "none";
+        long roundTripsBefore = roundTripCounter.current();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Object result = joinPoint.proceed();
+            recordBooks(operation, joinPoint.getArgs(), result);
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(TIMER_NAME)
+                    .tag("operation", operation)
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+            DistributionSummary.builder(ROUND_TRIPS_SUMMARY_NAME)
+                    .tag("operation", operation)
+                    .register(meterRegistry)
+                    .record(roundTripCounter.current() - roundTripsBefore);
+        }
+    }
+
+    /**
+     * Для записи берётся число книг в запросе, для чтения — в ответе.
+     */
+    private void recordBooks(String operation, Object[] args, Object result) {
+        int books;
+        if (args.length > 0 && args[0] instanceof UserBookRequest request && request.getBookRequests() != null) {
+            books = request.getBookRequests().size();
+        } else if (result instanceof UserBookResponse response && response.getBooksIdList() != null) {
+            books = response.getBooksIdList().size();
+        } else {
+            return;
+        }
+        DistributionSummary.builder(BOOKS_SUMMARY_NAME)
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(books);
+    }
+}
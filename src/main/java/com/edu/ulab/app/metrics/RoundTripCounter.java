@@ -0,0 +1,30 @@
+package com.edu.ulab.app.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * Считает обращения к базе в текущем потоке: одно выполнение statement, в том числе пачки batch, — один round trip.
+ * <p>
+ * Счётчик только растёт, поэтому число обращений за операцию — разность {@link #current()} до и после неё,
+ * и вложенные измерения не мешают друг другу.
+ */
+public class RoundTripCounter implements QueryExecutionListener {
+    private final ThreadLocal<long[]> count = ThreadLocal.withInitial(() -> new long[1]);
+
+    public long current() {
+        return count.get()[0];
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        count.get()[0]++;
+    }
+}
@@ -0,0 +1,31 @@
+package com.edu.ulab.app.reactive;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Строка {@code ulab_edu.book} для R2DBC, см. {@link PersonRow}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Table("ulab_edu.book")
+public class BookRow {
+    @Id
+    private Long id;
+
+    private Long personId;
+
+    private String title;
+
+    private String author;
+
+    private long pageCount;
+
+    @Version
+    private Long version;
+}
@@ -0,0 +1,18 @@
+package com.edu.ulab.app.reactive;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface BookRowRepository extends ReactiveCrudRepository<BookRow, Long> {
+    Flux<BookRow> findByPersonIdOrderById(Long personId);
+
+    @Query("select id from ulab_edu.book where person_id = :personId order by id")
+    Flux<Long> findIdsByPersonId(Long personId);
+
+    @Modifying
+    @Query("delete from ulab_edu.book where person_id = :personId")
+    Mono<Integer> deleteByPersonId(Long personId);
+}
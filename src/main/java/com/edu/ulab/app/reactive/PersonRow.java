@@ -0,0 +1,30 @@
+package com.edu.ulab.app.reactive;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Строка {@code ulab_edu.person} для R2DBC. Идентификатор задаётся до вставки из общей последовательности,
+ * поэтому новая строка отличается от существующей пустой версией.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Table("ulab_edu.person")
+public class PersonRow {
+    @Id
+    private Long id;
+
+    private String fullName;
+
+    private String title;
+
+    private int age;
+
+    @Version
+    private Long version;
+}
@@ -0,0 +1,9 @@
+package com.edu.ulab.app.reactive;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+
+public interface PersonRowRepository extends ReactiveCrudRepository<PersonRow, Long> {
+    Flux<PersonRow> findByIdGreaterThanOrderById(Long id, Pageable pageable);
+}
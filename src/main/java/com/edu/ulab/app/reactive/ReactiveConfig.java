@@ -0,0 +1,106 @@
+package com.edu.ulab.app.reactive;
+
+import com.edu.ulab.app.exception.BadRequestException;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.web.constant.WebConstant;
+import com.edu.ulab.app.web.response.BaseWebResponse;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.accept;
+
+/**
+ * Неблокирующий стек для профиля {@code reactive}: WebFlux на Netty, маршруты {@code /api/v1/user/*},
+ * {@link ReactiveUserFacade} и R2DBC репозитории над теми же таблицами {@code ulab_edu}.
+ * <p>
+ * Менеджер транзакций R2DBC не регистрируется бином: рядом с менеджером JPA он сделал бы выбор
+ * менеджера для {@code @Transactional} неоднозначным. Транзакции реактивного фасада идут через
+ * {@link TransactionalOperator}.
+ */
+@Slf4j
+@Profile("reactive")
+@Configuration
+@EnableR2dbcRepositories(basePackageClasses = PersonRowRepository.class)
+public class ReactiveConfig {
+
+    /**
+     * Tomcat тоже на classpath, и без явной фабрики автоконфигурация запустила бы WebFlux на нём.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    @Bean
+    public ReactiveIdAllocator reactiveIdAllocator(DatabaseClient databaseClient) {
+        return new ReactiveIdAllocator(databaseClient);
+    }
+
+    @Bean
+    public ReactiveUserFacade reactiveUserFacade(PersonRowRepository personRepository,
+                                                 BookRowRepository bookRepository,
+                                                 ReactiveIdAllocator reactiveIdAllocator,
+                                                 TransactionalOperator reactiveTransactionalOperator,
+                                                 UserMapper userMapper,
+                                                 BookMapper bookMapper,
+                                                 @Value("${app.retry.max-attempts:3}") int maxAttempts,
+                                                 @Value("${app.retry.backoff:20ms}") Duration backoff) {
+        return new ReactiveUserFacade(personRepository, bookRepository, reactiveIdAllocator,
+                reactiveTransactionalOperator, userMapper, bookMapper, maxAttempts, backoff);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> userRoutes(ReactiveUserFacade reactiveUserFacade) {
+        return routes(new UserHandler(reactiveUserFacade));
+    }
+
+    /**
+     * Маршруты и ответы на ошибки те же, что у {@link com.edu.ulab.app.web.UserController}
+     * и {@link com.edu.ulab.app.web.handler.ControllerExceptionHandler}.
+     */
+    static RouterFunction<ServerResponse> routes(UserHandler handler) {
+        return RouterFunctions.route()
+                .path(WebConstant.VERSION_URL + "/user", builder -> builder
+                        .POST("/create", accept(MediaType.APPLICATION_JSON), handler::createUserWithBooks)
+                        .PUT("/update", accept(MediaType.APPLICATION_JSON), handler::updateUserWithBooks)
+                        .GET("/get/{userId}", handler::getUserWithBooks)
+                        .GET("", handler::getUsers)
+                        .DELETE("/delete/{userId}", handler::deleteUserWithBooks))
+                .onError(NotFoundException.class, (exc, request) -> error(HttpStatus.BAD_REQUEST, exc))
+                .onError(BadRequestException.class, (exc, request) -> error(HttpStatus.BAD_REQUEST, exc))
+                .onError(OptimisticLockingFailureException.class, (exc, request) -> error(HttpStatus.CONFLICT, exc))
+                .build();
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, Throwable exc) {
+        log.warn(exc.getMessage());
+        return ServerResponse.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new BaseWebResponse(exc.getMessage()));
+    }
+}
@@ -0,0 +1,43 @@
+package com.edu.ulab.app.reactive;
+
+import com.edu.ulab.app.id.BlockIdAllocator;
+import com.edu.ulab.app.id.SequenceIdGenerator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+
+/**
+ * Неблокирующий аналог {@link com.edu.ulab.app.id.SequenceIdAllocator}: блоки той же последовательности
+ * {@link SequenceIdGenerator#SEQUENCE_NAME} запрашиваются через R2DBC. Пока в текущем блоке хватает
+ * идентификаторов, к базе не обращаемся.
+ */
+public class ReactiveIdAllocator {
+    static final String NEXT_VALUES_SQL =
+            "select nextval('" + SequenceIdGenerator.SEQUENCE_NAME + "') from generate_series(1, :count)";
+
+    private final BlockIdAllocator allocator = new BlockIdAllocator(SequenceIdGenerator.BLOCK_SIZE);
+    private final DatabaseClient databaseClient;
+
+    public ReactiveIdAllocator(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<long[]> nextIds(int count) {
+        return Mono.defer(() -> {
+            long[] ids = allocator.tryNextIds(count);
+            if (ids != null) {
+                return Mono.just(ids);
+            }
+            int blocks = (count + SequenceIdGenerator.BLOCK_SIZE - 1) / SequenceIdGenerator.BLOCK_SIZE;
+            return databaseClient.sql(NEXT_VALUES_SQL)
+                    .bind("count", blocks)
+                    .map(row -> row.get(0, Long.class))
+                    .all()
+                    .collectList()
+                    .map(values -> values.stream().mapToLong(Long::longValue).toArray())
+                    // часть блока могли оставить другие вызовы, тогда новых значений нужно меньше
+                    .map(values -> allocator.nextIds(count, wanted -> Arrays.copyOf(values, Math.min(wanted, values.length))));
+        });
+    }
+}
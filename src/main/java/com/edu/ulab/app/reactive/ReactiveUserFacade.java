@@ -0,0 +1,223 @@
+package com.edu.ulab.app.reactive;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.BadRequestException;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.edu.ulab.app.web.response.UserPageResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Неблокирующий вариант {@link UserDataFacade} поверх R2DBC с теми же запросами, ответами и правилами:
+ * создание и обновление выполняются одной транзакцией, обновление трогает только изменившиеся книги
+ * и при конфликте версий повторяется целиком, как {@link com.edu.ulab.app.retry.RetryOnConflict}.
+ */
+@Slf4j
+public class ReactiveUserFacade {
+    private final PersonRowRepository personRepository;
+    private final BookRowRepository bookRepository;
+    private final ReactiveIdAllocator idAllocator;
+    private final TransactionalOperator transactionalOperator;
+    private final UserMapper userMapper;
+    private final BookMapper bookMapper;
+    private final Retry conflictRetry;
+
+    public ReactiveUserFacade(PersonRowRepository personRepository,
+                              BookRowRepository bookRepository,
+                              ReactiveIdAllocator idAllocator,
+                              TransactionalOperator transactionalOperator,
+                              UserMapper userMapper,
+                              BookMapper bookMapper,
+                              int maxAttempts,
+                              Duration backoff) {
+        this.personRepository = personRepository;
+        this.bookRepository = bookRepository;
+        this.idAllocator = idAllocator;
+        this.transactionalOperator = transactionalOperator;
+        this.userMapper = userMapper;
+        this.bookMapper = bookMapper;
+        this.conflictRetry = Retry.max(Math.max(1, maxAttempts) - 1)
+                .filter(OptimisticLockingFailureException.class::isInstance)
+                .doBeforeRetryAsync(signal -> pause(backoff, signal.totalRetries() + 1))
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    public Mono<UserBookResponse> createUserWithBooks(UserBookRequest userBookRequest) {
+        return Mono.defer(() -> {
+            UserDto userDto = userMapper.userRequestToUserDto(userBookRequest.getUserRequest());
+            List<BookDto> bookDtos = books(userBookRequest);
+            return idAllocator.nextIds(bookDtos.size() + 1)
+                    .flatMap(ids -> {
+                        PersonRow person = userMapper.userDtoToPersonRow(userDto);
+                        person.setId(ids[0]);
+                        List<BookRow> books = new ArrayList<>(bookDtos.size());
+                        for (int i = 0; i < bookDtos.size(); i++) {
+                            BookRow book = bookMapper.bookDtoToBookRow(bookDtos.get(i));
+                            book.setId(ids[i + 1]);
+                            book.setPersonId(ids[0]);
+                            books.add(book);
+                        }
+                        return personRepository.save(person)
+                                .thenMany(bookRepository.saveAll(books))
+                                .map(BookRow::getId)
+                                .collectList()
+                                .map(bookIds -> response(person.getId(), bookIds));
+                    })
+                    .as(transactionalOperator::transactional);
+        });
+    }
+
+    /**
+     * @see UserDataFacade#updateUserWithBooks
+     */
+    public Mono<UserBookResponse> updateUserWithBooks(UserBookRequest userBookRequest) {
+        return Mono.defer(() -> {
+                    UserDto userDto = userMapper.userRequestToUserDto(userBookRequest.getUserRequest());
+                    Long userId = Objects.requireNonNull(userDto.getId(), "User id is required for update");
+                    List<BookDto> requestedBooks = books(userBookRequest);
+                    requestedBooks.forEach(bookDto -> bookDto.setUserId(userId));
+                    return personRepository.findById(userId)
+                            .switchIfEmpty(Mono.error(() -> new NotFoundException("User with id " + userId + " not found")))
+                            .flatMap(person -> updatePerson(person, userDto))
+                            .thenMany(bookRepository.findByPersonIdOrderById(userId))
+                            .collectMap(BookRow::getId)
+                            .flatMap(storedBooks -> updateBooks(userId, storedBooks, requestedBooks))
+                            .as(transactionalOperator::transactional);
+                })
+                .retryWhen(conflictRetry);
+    }
+
+    public Mono<UserBookResponse> getUserWithBooks(Long userId) {
+        return personRepository.existsById(userId)
+                .flatMap(exists -> exists
+                        ? bookRepository.findIdsByPersonId(userId).collectList()
+                        : Mono.error(new NotFoundException("User with id " + userId + " not found")))
+                .map(bookIds -> response(userId, bookIds));
+    }
+
+    /**
+     * @see UserDataFacade#getUsers
+     */
+    public Mono<UserPageResponse> getUsers(long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, UserDataFacade.MAX_PAGE_SIZE));
+        return personRepository.findByIdGreaterThanOrderById(afterId, PageRequest.of(0, pageSize))
+                .map(userMapper::personRowToUserDto)
+                .collectList()
+                .map(users -> UserPageResponse.builder()
+                        .users(users.stream().map(userMapper::userDtoToUserResponse).toList())
+                        .nextAfterId(users.size() == pageSize ? users.get(users.size() - 1).getId() : null)
+                        .build());
+    }
+
+    public Mono<Void> deleteUserWithBooks(Long userId) {
+        return bookRepository.deleteByPersonId(userId)
+                .then(personRepository.deleteById(userId))
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<PersonRow> updatePerson(PersonRow person, UserDto userDto) {
+        if (userMapper.personRowToUserDto(person).equals(userDto)) {
+            return Mono.just(person);
+        }
+        person.setFullName(userDto.getFullName());
+        person.setTitle(userDto.getTitle());
+        person.setAge(userDto.getAge());
+        return personRepository.save(person);
+    }
+
+    private Mono<UserBookResponse> updateBooks(Long userId, Map<Long, BookRow> storedBooks, List<BookDto> requestedBooks) {
+        List<BookDto> booksToCreate = new ArrayList<>();
+        List<BookRow> booksToUpdate = new ArrayList<>();
+        Set<Long> keptBookIds = new HashSet<>();
+        for (BookDto bookDto : requestedBooks) {
+            if (bookDto.getId() == null) {
+                booksToCreate.add(bookDto);
+                continue;
+            }
+            BookRow storedBook = storedBooks.get(bookDto.getId());
+            if (storedBook == null) {
+                return Mono.error(new NotFoundException(
+                        "Book with id " + bookDto.getId() + " not found for user with id " + userId));
+            }
+            if (!keptBookIds.add(bookDto.getId())) {
+                return Mono.error(new BadRequestException("Book with id " + bookDto.getId() + " is listed more than once"));
+            }
+            if (!bookMapper.bookRowToBookDto(storedBook).equals(bookDto)) {
+                storedBook.setTitle(bookDto.getTitle());
+                storedBook.setAuthor(bookDto.getAuthor());
+                storedBook.setPageCount(bookDto.getPageCount());
+                booksToUpdate.add(storedBook);
+            }
+        }
+        List<Long> bookIdsToDelete = storedBooks.keySet()
+                .stream()
+                .filter(bookId -> !keptBookIds.contains(bookId))
+                .toList();
+
+        Mono<Void> created = booksToCreate.isEmpty()
+                ? Mono.empty()
+                : idAllocator.nextIds(booksToCreate.size())
+                .flatMapMany(ids -> {
+                    List<BookRow> rows = new ArrayList<>(booksToCreate.size());
+                    for (int i = 0; i < booksToCreate.size(); i++) {
+                        booksToCreate.get(i).setId(ids[i]);
+                        rows.add(bookMapper.bookDtoToBookRow(booksToCreate.get(i)));
+                    }
+                    return bookRepository.saveAll(rows);
+                })
+                .then();
+        return created
+                .thenMany(Flux.defer(() -> bookRepository.saveAll(booksToUpdate)))
+                .then(bookIdsToDelete.isEmpty() ? Mono.empty() : bookRepository.deleteAllById(bookIdsToDelete))
+                .then(Mono.fromSupplier(() -> {
+                    log.info("Books of user {}: created {}, updated {}, deleted {}, unchanged {}", userId,
+                            booksToCreate.size(), booksToUpdate.size(), bookIdsToDelete.size(),
+                            keptBookIds.size() - booksToUpdate.size());
+                    return response(userId, requestedBooks.stream().map(BookDto::getId).toList());
+                }));
+    }
+
+    private List<BookDto> books(UserBookRequest userBookRequest) {
+        return userBookRequest.getBookRequests() == null
+                ? List.of()
+                : userBookRequest.getBookRequests()
+                .stream()
+                .filter(Objects::nonNull)
+                .map(bookMapper::bookRequestToBookDto)
+                .toList();
+    }
+
+    private static UserBookResponse response(Long userId, List<Long> bookIds) {
+        return UserBookResponse.builder()
+                .userId(userId)
+                .booksIdList(bookIds)
+                .build();
+    }
+
+    private static Mono<Void> pause(Duration backoff, long attempt) {
+        long maxPause = backoff.toMillis() * attempt;
+        return maxPause <= 0
+                ? Mono.empty()
+                : Mono.delay(Duration.ofMillis(ThreadLocalRandom.current().nextLong(maxPause + 1))).then();
+    }
+}
@@ -0,0 +1,65 @@
+package com.edu.ulab.app.reactive;
+
+import com.edu.ulab.app.exception.BadRequestException;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * Обработчики маршрутов {@code /user}, повторяют методы {@link com.edu.ulab.app.web.UserController}
+ * поверх {@link ReactiveUserFacade}. Ответ собирается из готового значения, а не из {@code Mono} тела:
+ * ошибка при записи тела уже не доходит до обработчиков {@code onError} маршрутов. Нечисловые параметры пути
+ * и запроса дают {@link BadRequestException}, как ошибка привязки параметра в контроллере.
+ */
+@Slf4j
+public class UserHandler {
+    private final ReactiveUserFacade userFacade;
+
+    public UserHandler(ReactiveUserFacade userFacade) {
+        this.userFacade = userFacade;
+    }
+
+    public Mono<ServerResponse> createUserWithBooks(ServerRequest request) {
+        return request.bodyToMono(UserBookRequest.class)
+                .flatMap(userFacade::createUserWithBooks)
+                .doOnNext(response -> log.debug("Response with created user and his books: {}", response))
+                .flatMap(response -> ServerResponse.ok().bodyValue(response));
+    }
+
+    public Mono<ServerResponse> updateUserWithBooks(ServerRequest request) {
+        return request.bodyToMono(UserBookRequest.class)
+                .flatMap(userFacade::updateUserWithBooks)
+                .doOnNext(response -> log.debug("Response with updated user and his books: {}", response))
+                .flatMap(response -> ServerResponse.ok().bodyValue(response));
+    }
+
+    public Mono<ServerResponse> getUserWithBooks(ServerRequest request) {
+        return parse("userId", request.pathVariable("userId"), Long::valueOf)
+                .flatMap(userFacade::getUserWithBooks)
+                .flatMap(response -> ServerResponse.ok().bodyValue(response));
+    }
+
+    public Mono<ServerResponse> getUsers(ServerRequest request) {
+        return Mono.zip(parse("afterId", request.queryParam("afterId").orElse("0"), Long::valueOf),
+                        parse("limit", request.queryParam("limit").orElse("100"), Integer::valueOf))
+                .flatMap(params -> userFacade.getUsers(params.getT1(), params.getT2()))
+                .flatMap(response -> ServerResponse.ok().bodyValue(response));
+    }
+
+    public Mono<ServerResponse> deleteUserWithBooks(ServerRequest request) {
+        return parse("userId", request.pathVariable("userId"), Long::valueOf)
+                .doOnNext(userId -> log.info("Delete user and his books:  userId {}", userId))
+                .flatMap(userFacade::deleteUserWithBooks)
+                .then(ServerResponse.ok().build());
+    }
+
+    private static <T> Mono<T> parse(String name, String value, Function<String, T> parser) {
+        return Mono.fromCallable(() -> parser.apply(value))
+                .onErrorMap(NumberFormatException.class,
+                        exc -> new BadRequestException("Parameter " + name + " is not a number: " + value));
+    }
+}
@@ -1,18 +1,27 @@
 package com.edu.ulab.app.repository;
 
 import com.edu.ulab.app.entity.Book;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
-import javax.persistence.LockModeType;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
-public interface BookRepository extends CrudRepository<Book, Long> {
+public interface BookRepository extends CrudRepository<Book, Integer> {
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("select b from Book b where b.id = :id")
-    Optional<Book> findByIdForUpdate(long id);
+    List<Book> findAllByPersonIdOrderById(Integer personId);
+
+    /**
+     * Удаляет книги одним запросом, без загрузки сущностей.
+     */
+    @Modifying
+    @Query("delete from Book b where b.id in :ids")
+    int deleteByIds(Collection<Integer> ids);
+
+    @Modifying
+    @Query("delete from Book b where b.person.id in :personIds")
+    int deleteByPersonIds(Collection<Integer> personIds);
 }
@@ -0,0 +1,10 @@
+package com.edu.ulab.app.repository;
+
+/**
+ * Строка соединения пользователя с его книгами: {@code bookId} равен null, если книг нет.
+ */
+public interface UserBookIdView {
+    Integer getUserId();
+
+    Integer getBookId();
+}
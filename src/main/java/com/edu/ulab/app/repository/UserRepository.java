@@ -1,16 +1,19 @@
 package com.edu.ulab.app.repository;
 
 import com.edu.ulab.app.entity.Person;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
-import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends CrudRepository<Person, Long> {
+public interface UserRepository extends CrudRepository<Person, Integer> {
 
     /*
     User has books - book - started - comited status - other logic
@@ -18,7 +21,27 @@ public interface UserRepository extends CrudRepository<Person, Long> {
     User has books - book - finished
      */
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("select p from Person p where p.id = :id")
-    Optional<Person> findByIdForUpdate(long id);
+    /**
+     * Пользователь вместе с книгами одним запросом, без отдельного select на {@link Person#getBookSet()}.
+     */
+    @EntityGraph(attributePaths = "bookSet")
+    Optional<Person> findWithBookSetById(Integer id);
+
+    /**
+     * Идентификаторы пользователя и его книг одним запросом без загрузки сущностей.
+     */
+    @Query("select p.id as userId, b.id as bookId from Person p left join p.bookSet b where p.id = :id order by b.id")
+    List<UserBookIdView> findUserBookIds(Integer id);
+
+    /**
+     * Страница keyset-пагинации: следующие {@code pageable.getPageSize()} пользователей после {@code id}.
+     */
+    List<Person> findByIdGreaterThanOrderById(Integer id, Pageable pageable);
+
+    /**
+     * Удаляет пользователей одним запросом, без загрузки сущностей. Книги должны быть удалены раньше.
+     */
+    @Modifying
+    @Query("delete from Person p where p.id in :ids")
+    int deleteByIds(Collection<Integer> ids);
 }
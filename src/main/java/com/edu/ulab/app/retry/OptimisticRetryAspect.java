@@ -0,0 +1,72 @@
+package com.edu.ulab.app.retry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Повтор методов {@link RetryOnConflict} при {@link OptimisticLockingFailureException}.
+ * <p>
+ * Аспект стоит снаружи транзакционного advice, поэтому каждая попытка — отдельная транзакция.
+ * Если при входе транзакция уже открыта, метод выполняется без повторов: конфликт обнаружится при фиксации
+ * внешней транзакции, и повторять нужно её. Попыток не больше {@code app.retry.max-attempts}; между ними
+ * случайная пауза до {@code app.retry.backoff}, умноженного на номер попытки, чтобы конкурирующие
+ * запросы не сталкивались снова. После последней попытки исключение пробрасывается.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class OptimisticRetryAspect {
+    private final int maxAttempts;
+    private final Duration backoff;
+
+    public OptimisticRetryAspect(@Value("${app.retry.max-attempts:3}") int maxAttempts,
+                                 @Value("${app.retry.backoff:20ms}") Duration backoff) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoff = backoff;
+    }
+
+    @Around("@annotation(com.edu.ulab.app.retry.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("{} failed after {} attempts: {}",
+                            joinPoint.getSignature().toShortString(), attempt, e.getMessage());
+                    throw e;
+                }
+                log.debug("{} conflicted on attempt {}, retrying", joinPoint.getSignature().toShortString(), attempt);
+                pause(attempt, e);
+            }
+        }
+    }
+
+    private void pause(int attempt, OptimisticLockingFailureException conflict) {
+        long maxPause = backoff.toMillis() * attempt;
+        if (maxPause <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxPause + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.edu.ulab.app.retry;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Повторять метод, если его транзакция не зафиксировалась из-за конфликта версий.
+ * <p>
+ * Метод должен сам открывать транзакцию ({@code @Transactional}) и целиком перечитывать данные:
+ * повтор выполняет его заново в новой транзакции. См. {@link OptimisticRetryAspect}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
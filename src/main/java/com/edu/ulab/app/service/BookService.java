@@ -3,12 +3,22 @@ package com.edu.ulab.app.service;
 
 import com.edu.ulab.app.dto.BookDto;
 
+import java.util.List;
+
 public interface BookService {
     BookDto createBook(BookDto bookDto);
 
+    List<BookDto> createBooks(List<BookDto> bookDtos);
+
     BookDto updateBook(BookDto bookDto);
 
+    List<BookDto> updateBooks(List<BookDto> bookDtos);
+
     BookDto getBookById(Long id);
 
+    List<BookDto> getBooksByUserId(Long userId);
+
     void deleteBookById(Long id);
+
+    void deleteBooksByIds(List<Long> ids);
 }
@@ -1,15 +1,61 @@
 package com.edu.ulab.app.service;
 
+import com.edu.ulab.app.config.CacheNames;
+import com.edu.ulab.app.dto.UserBooksDto;
 import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 @Repository
 public interface UserService {
     UserDto createUser(UserDto userDto);
 
+    List<UserDto> createUsers(List<UserDto> userDtos);
+
+    @CacheEvict(cacheNames = CacheNames.USERS, key = "#userDto.id")
     UserDto updateUser(UserDto userDto);
 
+    @Cacheable(cacheNames = CacheNames.USERS, key = "#id")
     UserDto getUserById(Long id);
 
+    /**
+     * Пользователь из базы, мимо кэша: для решений внутри транзакции, которым нельзя верить устаревшей копии.
+     * Прокси передаёт вызов реализации, и {@link #getUserById} вызывается уже на ней, без кэширующего совета.
+     */
+    default UserDto getUserByIdUncached(Long id) {
+        return getUserById(id);
+    }
+
+    @Cacheable(cacheNames = CacheNames.USER_BOOKS, key = "#id")
+    UserBookResponse getUserWithBooks(Long id);
+
+    /**
+     * Страница пользователей с id больше {@code afterId} по возрастанию id.
+     */
+    List<UserDto> getUsersAfter(long afterId, int limit);
+
+    /**
+     * Передаёт потребителю каждого пользователя с его книгами, не держа в памяти больше одного пользователя.
+     */
+    void exportUsersWithBooks(Consumer<UserBooksDto> consumer);
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.USERS, key = "#id"),
+            @CacheEvict(cacheNames = CacheNames.USER_BOOKS, key = "#id")})
     void deleteUserById(Long id);
+
+    /**
+     * Удаляет пользователей вместе с их книгами. Кэши сбрасываются целиком: массовое удаление редкое,
+     * а поштучное вытеснение по списку ключей аннотациями не выражается.
+     *
+     * @return число удалённых пользователей
+     */
+    @CacheEvict(cacheNames = {CacheNames.USERS, CacheNames.USER_BOOKS}, allEntries = true)
+    int deleteUsersByIds(List<Long> ids);
 }
@@ -2,11 +2,24 @@ package com.edu.ulab.app.service.impl;
 
 import com.edu.ulab.app.dto.BookDto;
 import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.exception.BadRequestException;
+import com.edu.ulab.app.exception.NotFoundException;
 import com.edu.ulab.app.mapper.BookMapper;
 import com.edu.ulab.app.repository.BookRepository;
+import com.edu.ulab.app.retry.RetryOnConflict;
 import com.edu.ulab.app.service.BookService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.edu.ulab.app.service.impl.EntityIds.entityId;
+import static com.edu.ulab.app.service.impl.EntityIds.entityIds;
 
 @Slf4j
 @Service
@@ -24,27 +37,91 @@ public class BookServiceImpl implements BookService {
 
     @Override
     public BookDto createBook(BookDto bookDto) {
-        Book book = bookMapper.bookDtoToBook(bookDto);
-        log.info("Mapped book: {}", book);
-        Book savedBook = bookRepository.save(book);
-        log.info("Saved book: {}", savedBook);
+        Book savedBook = bookRepository.save(bookMapper.bookDtoToBook(bookDto));
+        log.debug("Saved book {}", savedBook.getId());
         return bookMapper.bookToBookDto(savedBook);
     }
 
     @Override
+    public List<BookDto> createBooks(List<BookDto> bookDtos) {
+        List<Book> books = bookDtos.stream()
+                .map(bookMapper::bookDtoToBook)
+                .toList();
+        List<BookDto> savedBooks = new ArrayList<>(books.size());
+        bookRepository.saveAll(books)
+                .forEach(savedBook -> savedBooks.add(bookMapper.bookToBookDto(savedBook)));
+        log.debug("Saved {} books", savedBooks.size());
+        return savedBooks;
+    }
+
+    @Override
+    @RetryOnConflict
+    @Transactional
     public BookDto updateBook(BookDto bookDto) {
-        // реализовать недстающие методы
-        return null;
+        Book book = entityId(bookDto.getId())
+                .flatMap(bookRepository::findById)
+                .orElseThrow(() -> new NotFoundException("Book with id " + bookDto.getId() + " not found"));
+        copyFields(bookDto, book);
+        log.debug("Updated book {}", book.getId());
+        return bookMapper.bookToBookDto(book);
+    }
+
+    /**
+     * Загружает книги одним запросом и меняет поля управляемых сущностей:
+     * update выполняются при flush только для действительно изменившихся книг.
+     */
+    @Override
+    @RetryOnConflict
+    @Transactional
+    public List<BookDto> updateBooks(List<BookDto> bookDtos) {
+        Map<Long, BookDto> bookDtoById = bookDtos.stream()
+                .collect(Collectors.toMap(BookDto::getId, Function.identity(),
+                        (first, second) -> {
+                            throw new BadRequestException("Book with id " + first.getId() + " is listed more than once");
+                        }));
+        List<BookDto> updatedBooks = new ArrayList<>(bookDtos.size());
+        for (Book book : bookRepository.findAllById(entityIds(bookDtoById.keySet()))) {
+            copyFields(bookDtoById.get(book.getId().longValue()), book);
+            updatedBooks.add(bookMapper.bookToBookDto(book));
+        }
+        log.debug("Updated {} books", updatedBooks.size());
+        return updatedBooks;
+    }
+
+    private static void copyFields(BookDto bookDto, Book book) {
+        book.setTitle(bookDto.getTitle());
+        book.setAuthor(bookDto.getAuthor());
+        book.setPageCount(bookDto.getPageCount());
     }
 
     @Override
     public BookDto getBookById(Long id) {
-        // реализовать недстающие методы
-        return null;
+        return entityId(id)
+                .flatMap(bookRepository::findById)
+                .map(bookMapper::bookToBookDto)
+                .orElseThrow(() -> new NotFoundException("Book with id " + id + " not found"));
+    }
+
+    @Override
+    public List<BookDto> getBooksByUserId(Long userId) {
+        return entityId(userId)
+                .map(bookRepository::findAllByPersonIdOrderById)
+                .orElse(List.of())
+                .stream()
+                .map(bookMapper::bookToBookDto)
+                .toList();
     }
 
     @Override
+    @Transactional
     public void deleteBookById(Long id) {
-        // реализовать недстающие методы
+        bookRepository.deleteByIds(entityIds(List.of(id)));
+    }
+
+    @Override
+    @Transactional
+    public void deleteBooksByIds(List<Long> ids) {
+        int deleted = bookRepository.deleteByIds(entityIds(ids));
+        log.info("Deleted {} books", deleted);
     }
 }
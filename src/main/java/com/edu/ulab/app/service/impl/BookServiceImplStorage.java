@@ -0,0 +1,94 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.storage.BookRecord;
+import com.edu.ulab.app.storage.Storage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Service
+public class BookServiceImplStorage implements BookService {
+    private final Storage storage;
+
+    public BookServiceImplStorage(Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public BookDto createBook(BookDto bookDto) {
+        BookRecord created = storage.createBook(toRecord(0, bookDto));
+        bookDto.setId(created.id());
+        return bookDto;
+    }
+
+    @Override
+    public List<BookDto> createBooks(List<BookDto> bookDtos) {
+        List<BookRecord> created = storage.createBooks(bookDtos.stream()
+                .map(bookDto -> toRecord(0, bookDto))
+                .toList());
+        for (int i = 0; i < created.size(); i++) {
+            bookDtos.get(i).setId(created.get(i).id());
+        }
+        return bookDtos;
+    }
+
+    @Override
+    public BookDto updateBook(BookDto bookDto) {
+        return toDto(storage.updateBook(toRecord(bookDto.getId(), bookDto)));
+    }
+
+    @Override
+    public List<BookDto> updateBooks(List<BookDto> bookDtos) {
+        return bookDtos.stream()
+                .map(this::updateBook)
+                .toList();
+    }
+
+    @Override
+    public BookDto getBookById(Long id) {
+        return storage.findBook(id)
+                .map(BookServiceImplStorage::toDto)
+                .orElseThrow(() -> new NotFoundException("Book with id " + id + " not found"));
+    }
+
+    @Override
+    public List<BookDto> getBooksByUserId(Long userId) {
+        List<BookDto> bookDtos = new ArrayList<>();
+        for (long bookId : storage.findBookIds(userId)) {
+            storage.findBook(bookId)
+                    .map(BookServiceImplStorage::toDto)
+                    .ifPresent(bookDtos::add);
+        }
+        return bookDtos;
+    }
+
+    @Override
+    public void deleteBookById(Long id) {
+        storage.deleteBook(id);
+    }
+
+    @Override
+    public void deleteBooksByIds(List<Long> ids) {
+        ids.forEach(storage::deleteBook);
+    }
+
+    private static BookRecord toRecord(long id, BookDto bookDto) {
+        return new BookRecord(id, bookDto.getUserId(), bookDto.getTitle(), bookDto.getAuthor(), bookDto.getPageCount());
+    }
+
+    private static BookDto toDto(BookRecord book) {
+        BookDto bookDto = new BookDto();
+        bookDto.setId(book.id());
+        bookDto.setUserId(book.userId());
+        bookDto.setTitle(book.title());
+        bookDto.setAuthor(book.author());
+        bookDto.setPageCount(book.pageCount());
+        return bookDto;
+    }
+}
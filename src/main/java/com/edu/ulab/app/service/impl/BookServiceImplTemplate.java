@@ -1,65 +1,142 @@
 package com.edu.ulab.app.service.impl;
 
 import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.id.IdAllocator;
 import com.edu.ulab.app.service.BookService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.PreparedStatementCreator;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.Objects;
+import java.util.List;
 
 @Slf4j
 @Service
 public class BookServiceImplTemplate implements BookService {
+    static final String INSERT_SQL =
+            "INSERT INTO ulab_edu.book(ID, TITLE, AUTHOR, PAGE_COUNT, PERSON_ID) VALUES (?,?,?,?,?)";
+    /**
+     * Увеличивает версию, как и {@link UserServiceImplTemplate#UPDATE_SQL}.
+     */
+    static final String UPDATE_SQL =
+            "UPDATE ulab_edu.book SET TITLE = ?, AUTHOR = ?, PAGE_COUNT = ?, VERSION = VERSION + 1 WHERE ID = ?";
+    static final String SELECT_BY_ID_SQL =
+            "SELECT ID, TITLE, AUTHOR, PAGE_COUNT, PERSON_ID FROM ulab_edu.book WHERE ID = ?";
+    static final String SELECT_BY_USER_ID_SQL =
+            "SELECT ID, TITLE, AUTHOR, PAGE_COUNT, PERSON_ID FROM ulab_edu.book WHERE PERSON_ID = ? ORDER BY ID";
+    static final String DELETE_BY_ID_SQL = "DELETE FROM ulab_edu.book WHERE ID = ?";
+    private static final RowMapper<BookDto> BOOK_ROW_MAPPER = (rs, rowNum) -> {
+        BookDto bookDto = new BookDto();
+        bookDto.setId(rs.getLong("ID"));
+        bookDto.setTitle(rs.getString("TITLE"));
+        bookDto.setAuthor(rs.getString("AUTHOR"));
+        bookDto.setPageCount(rs.getLong("PAGE_COUNT"));
+        bookDto.setUserId(rs.getLong("PERSON_ID"));
+        return bookDto;
+    };
 
     private final JdbcTemplate jdbcTemplate;
+    private final IdAllocator idAllocator;
+    private final int batchSize;
 
-    public BookServiceImplTemplate(JdbcTemplate jdbcTemplate) {
+    public BookServiceImplTemplate(JdbcTemplate jdbcTemplate,
+                                   IdAllocator idAllocator,
+                                   @Value("${app.jdbc.batch-size:100}") int batchSize) {
         this.jdbcTemplate = jdbcTemplate;
+        this.idAllocator = idAllocator;
+        this.batchSize = batchSize;
     }
 
     @Override
     public BookDto createBook(BookDto bookDto) {
-        final String INSERT_SQL = "INSERT INTO BOOK(TITLE, AUTHOR, PAGE_COUNT, USER_ID) VALUES (?,?,?,?)";
-        KeyHolder keyHolder = new GeneratedKeyHolder();
-        jdbcTemplate.update(
-                new PreparedStatementCreator() {
-                    public PreparedStatement createPreparedStatement(Connection connection) throws SQLException {
-                        PreparedStatement ps =
-                                connection.prepareStatement(INSERT_SQL, new String[]{"id"});
-                        ps.setString(1, bookDto.getTitle());
-                        ps.setString(2, bookDto.getAuthor());
-                        ps.setLong(3, bookDto.getPageCount());
-                        ps.setLong(4, bookDto.getUserId());
-                        return ps;
-                    }
-                },
-                keyHolder);
-
-        bookDto.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
+        bookDto.setId(idAllocator.nextId());
+        jdbcTemplate.update(INSERT_SQL, ps -> setInsertParameters(ps, bookDto));
         return bookDto;
     }
 
+    /**
+     * Сохраняет книги пачками по {@code app.jdbc.batch-size} строк: один round trip на пачку
+     * вместо одного на книгу. Идентификаторы резервируются заранее одним обращением к последовательности.
+     * Все пачки выполняются в одной транзакции, поэтому при ошибке в любой из них
+     * откатываются и ранее вставленные книги.
+     */
+    @Override
+    @Transactional
+    public List<BookDto> createBooks(List<BookDto> bookDtos) {
+        long[] ids = idAllocator.nextIds(bookDtos.size());
+        for (int i = 0; i < ids.length; i++) {
+            bookDtos.get(i).setId(ids[i]);
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, bookDtos, batchSize, BookServiceImplTemplate::setInsertParameters);
+        } catch (DataAccessException e) {
+            log.error("Batch insert of {} books failed, rolling back", bookDtos.size());
+            throw e;
+        }
+        return bookDtos;
+    }
+
+    private static void setInsertParameters(PreparedStatement ps, BookDto bookDto) throws SQLException {
+        ps.setLong(1, bookDto.getId());
+        ps.setString(2, bookDto.getTitle());
+        ps.setString(3, bookDto.getAuthor());
+        ps.setLong(4, bookDto.getPageCount());
+        ps.setLong(5, bookDto.getUserId());
+    }
+
+    private static void setUpdateParameters(PreparedStatement ps, BookDto bookDto) throws SQLException {
+        ps.setString(1, bookDto.getTitle());
+        ps.setString(2, bookDto.getAuthor());
+        ps.setLong(3, bookDto.getPageCount());
+        ps.setLong(4, bookDto.getId());
+    }
+
     @Override
     public BookDto updateBook(BookDto bookDto) {
-        // реализовать недстающие методы
-        return null;
+        if (jdbcTemplate.update(UPDATE_SQL, ps -> setUpdateParameters(ps, bookDto)) == 0) {
+            throw new NotFoundException("Book with id " + bookDto.getId() + " not found");
+        }
+        return bookDto;
+    }
+
+    /**
+     * Обновляет книги пачками по {@code app.jdbc.batch-size} строк в одной транзакции.
+     * Владелец книги не меняется.
+     */
+    @Override
+    @Transactional
+    public List<BookDto> updateBooks(List<BookDto> bookDtos) {
+        jdbcTemplate.batchUpdate(UPDATE_SQL, bookDtos, batchSize, BookServiceImplTemplate::setUpdateParameters);
+        return bookDtos;
     }
 
     @Override
     public BookDto getBookById(Long id) {
-        // реализовать недстающие методы
-        return null;
+        return jdbcTemplate.query(SELECT_BY_ID_SQL, BOOK_ROW_MAPPER, id)
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException("Book with id " + id + " not found"));
+    }
+
+    @Override
+    public List<BookDto> getBooksByUserId(Long userId) {
+        return jdbcTemplate.query(SELECT_BY_USER_ID_SQL, BOOK_ROW_MAPPER, userId);
     }
 
     @Override
     public void deleteBookById(Long id) {
-        // реализовать недстающие методы
+        jdbcTemplate.update(DELETE_BY_ID_SQL, id);
+    }
+
+    @Override
+    @Transactional
+    public void deleteBooksByIds(List<Long> ids) {
+        jdbcTemplate.batchUpdate(DELETE_BY_ID_SQL, ids, batchSize, (ps, id) -> ps.setLong(1, id));
     }
 }
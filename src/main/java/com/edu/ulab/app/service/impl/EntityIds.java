@@ -0,0 +1,33 @@
+package com.edu.ulab.app.service.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Идентификаторы сущностей JPA — {@code int}, а клиент присылает {@code long}.
+ * Строк с идентификатором вне диапазона {@code int} нет, поэтому такой идентификатор означает «не найдено»,
+ * а не ошибку сервера.
+ */
+final class EntityIds {
+
+    private EntityIds() {
+    }
+
+    static Optional<Integer> entityId(Long id) {
+        if (id == null || id < Integer.MIN_VALUE || id > Integer.MAX_VALUE) {
+            return Optional.empty();
+        }
+        return Optional.of(id.intValue());
+    }
+
+    /**
+     * Идентификаторы вне диапазона {@code int} отбрасываются: соответствующих строк всё равно нет.
+     */
+    static List<Integer> entityIds(Collection<Long> ids) {
+        return ids.stream()
+                .map(EntityIds::entityId)
+                .flatMap(Optional::stream)
+                .toList();
+    }
+}
@@ -1,49 +1,198 @@
 package com.edu.ulab.app.service.impl;
 
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserBooksDto;
 import com.edu.ulab.app.dto.UserDto;
 import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.exception.NotFoundException;
 import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.repository.BookRepository;
+import com.edu.ulab.app.repository.UserBookIdView;
 import com.edu.ulab.app.repository.UserRepository;
+import com.edu.ulab.app.retry.RetryOnConflict;
 import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.web.response.UserBookResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static com.edu.ulab.app.service.impl.EntityIds.entityId;
+import static com.edu.ulab.app.service.impl.EntityIds.entityIds;
 
 @Slf4j
 @Service
 public class UserServiceImpl implements UserService {
+    /**
+     * Все пользователи с книгами, упорядоченные по пользователю; поля книги равны null, если книг нет.
+     */
+    private static final String EXPORT_QUERY = """
+            select p.id as userId, p.fullName as fullName, p.title as title, p.age as age,
+                   b.id as bookId, b.title as bookTitle, b.author as bookAuthor, b.pageCount as bookPageCount
+            from Person p left join p.bookSet b
+            order by p.id, b.id""";
 
     private final UserRepository userRepository;
+    private final BookRepository bookRepository;
     private final UserMapper userMapper;
+    private final EntityManager entityManager;
+    private final int fetchSize;
 
     public UserServiceImpl(UserRepository userRepository,
-                           UserMapper userMapper) {
+                           BookRepository bookRepository,
+                           UserMapper userMapper,
+                           EntityManager entityManager,
+                           @Value("${app.jdbc.fetch-size:1000}") int fetchSize) {
         this.userRepository = userRepository;
+        this.bookRepository = bookRepository;
         this.userMapper = userMapper;
+        this.entityManager = entityManager;
+        this.fetchSize = fetchSize;
     }
 
     @Override
     public UserDto createUser(UserDto userDto) {
-        Person user = userMapper.userDtoToPerson(userDto);
-        log.info("Mapped user: {}", user);
-        Person savedUser = userRepository.save(user);
-        log.info("Saved user: {}", savedUser);
+        Person savedUser = userRepository.save(userMapper.userDtoToPerson(userDto));
+        log.debug("Saved user {}", savedUser.getId());
         return userMapper.personToUserDto(savedUser);
     }
 
     @Override
+    public List<UserDto> createUsers(List<UserDto> userDtos) {
+        List<Person> users = userDtos.stream()
+                .map(userMapper::userDtoToPerson)
+                .toList();
+        List<UserDto> savedUsers = new ArrayList<>(users.size());
+        userRepository.saveAll(users)
+                .forEach(savedUser -> savedUsers.add(userMapper.personToUserDto(savedUser)));
+        log.info("Saved {} users", savedUsers.size());
+        return savedUsers;
+    }
+
+    @Override
+    @RetryOnConflict
+    @Transactional
     public UserDto updateUser(UserDto userDto) {
-        // реализовать недстающие методы
-        return null;
+        Person user = entityId(userDto.getId())
+                .flatMap(userRepository::findById)
+                .orElseThrow(() -> new NotFoundException("User with id " + userDto.getId() + " not found"));
+        user.setFullName(userDto.getFullName());
+        user.setTitle(userDto.getTitle());
+        user.setAge(userDto.getAge());
+        log.debug("Updated user {}", user.getId());
+        return userMapper.personToUserDto(user);
     }
 
     @Override
     public UserDto getUserById(Long id) {
-        // реализовать недстающие методы
-        return null;
+        return entityId(id)
+                .flatMap(userRepository::findById)
+                .map(userMapper::personToUserDto)
+                .orElseThrow(() -> new NotFoundException("User with id " + id + " not found"));
     }
 
     @Override
+    public UserBookResponse getUserWithBooks(Long id) {
+        List<UserBookIdView> rows = entityId(id)
+                .map(userRepository::findUserBookIds)
+                .orElse(List.of());
+        if (rows.isEmpty()) {
+            throw new NotFoundException("User with id " + id + " not found");
+        }
+        List<Long> bookIds = new ArrayList<>(rows.size());
+        for (UserBookIdView row : rows) {
+            if (row.getBookId() != null) {
+                bookIds.add(row.getBookId().longValue());
+            }
+        }
+        return UserBookResponse.builder()
+                .userId(id)
+                .booksIdList(bookIds)
+                .build();
+    }
+
+    /**
+     * Идентификаторы person — {@code int}: после {@code afterId} за пределами диапазона пользователей нет,
+     * а перед ним — все.
+     */
+    @Override
+    public List<UserDto> getUsersAfter(long afterId, int limit) {
+        if (afterId >= Integer.MAX_VALUE) {
+            return List.of();
+        }
+        int after = (int) Math.max(afterId, Integer.MIN_VALUE);
+        return userRepository.findByIdGreaterThanOrderById(after, PageRequest.ofSize(limit))
+                .stream()
+                .map(userMapper::personToUserDto)
+                .toList();
+    }
+
+    /**
+     * Читает соединение пользователей с книгами курсором по {@code app.jdbc.fetch-size} строк, как и JDBC сервис.
+     * Строки читаются кортежами, поэтому не попадают в контекст персистентности и не копятся в памяти.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportUsersWithBooks(Consumer<UserBooksDto> consumer) {
+        UserBooksDto current = null;
+        try (Stream<Tuple> rows = entityManager.createQuery(EXPORT_QUERY, Tuple.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream()) {
+            for (Tuple row : (Iterable<Tuple>) rows::iterator) {
+                long userId = row.get("userId", Integer.class);
+                if (current == null || current.getUser().getId() != userId) {
+                    if (current != null) {
+                        consumer.accept(current);
+                    }
+                    UserDto userDto = new UserDto();
+                    userDto.setId(userId);
+                    userDto.setFullName(row.get("fullName", String.class));
+                    userDto.setTitle(row.get("title", String.class));
+                    userDto.setAge(row.get("age", Integer.class));
+                    current = new UserBooksDto(userDto, new ArrayList<>());
+                }
+                Integer bookId = row.get("bookId", Integer.class);
+                if (bookId != null) {
+                    BookDto bookDto = new BookDto();
+                    bookDto.setId(bookId.longValue());
+                    bookDto.setUserId(userId);
+                    bookDto.setTitle(row.get("bookTitle", String.class));
+                    bookDto.setAuthor(row.get("bookAuthor", String.class));
+                    bookDto.setPageCount(row.get("bookPageCount", Long.class));
+                    current.getBooks().add(bookDto);
+                }
+            }
+        }
+        if (current != null) {
+            consumer.accept(current);
+        }
+    }
+
+    @Override
+    @Transactional
     public void deleteUserById(Long id) {
-        // реализовать недстающие методы
+        deleteUsersByIds(List.of(id));
+    }
+
+    /**
+     * Два запроса на всю пачку: сначала книги, затем пользователи. Сущности не загружаются.
+     */
+    @Override
+    @Transactional
+    public int deleteUsersByIds(List<Long> ids) {
+        List<Integer> userIds = entityIds(ids);
+        int deletedBooks = bookRepository.deleteByPersonIds(userIds);
+        int deleted = userRepository.deleteByIds(userIds);
+        log.info("Deleted {} of {} users with {} books", deleted, ids.size(), deletedBooks);
+        return deleted;
     }
 }
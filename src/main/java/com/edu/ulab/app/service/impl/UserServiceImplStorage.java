@@ -0,0 +1,146 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserBooksDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.storage.BookRecord;
+import com.edu.ulab.app.storage.Storage;
+import com.edu.ulab.app.storage.UserRecord;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+public class UserServiceImplStorage implements UserService {
+    private final Storage storage;
+
+    public UserServiceImplStorage(Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public UserDto createUser(UserDto userDto) {
+        UserRecord created = storage.createUser(toRecord(0, userDto));
+        userDto.setId(created.id());
+        return userDto;
+    }
+
+    @Override
+    public List<UserDto> createUsers(List<UserDto> userDtos) {
+        userDtos.forEach(this::createUser);
+        return userDtos;
+    }
+
+    @Override
+    public UserDto updateUser(UserDto userDto) {
+        return toDto(storage.updateUser(toRecord(userDto.getId(), userDto)));
+    }
+
+    @Override
+    public UserDto getUserById(Long id) {
+        return storage.findUser(id)
+                .map(UserServiceImplStorage::toDto)
+                .orElseThrow(() -> new NotFoundException("User with id " + id + " not found"));
+    }
+
+    @Override
+    public UserBookResponse getUserWithBooks(Long id) {
+        long[] bookIds = storage.findBookIds(id);
+        List<Long> bookIdList = new ArrayList<>(bookIds.length);
+        for (long bookId : bookIds) {
+            bookIdList.add(bookId);
+        }
+        return UserBookResponse.builder()
+                .userId(id)
+                .booksIdList(bookIdList)
+                .build();
+    }
+
+    /**
+     * Хранилище не упорядочено по id, поэтому страница выбирается полным обходом идентификаторов
+     * с кучей на {@code limit} элементов: O(n log limit) на страницу.
+     */
+    @Override
+    public List<UserDto> getUsersAfter(long afterId, int limit) {
+        PriorityQueue<Long> smallest = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+        storage.forEachUserId(id -> {
+            if (id > afterId && (smallest.size() < limit || id < smallest.peek())) {
+                smallest.add(id);
+                if (smallest.size() > limit) {
+                    smallest.poll();
+                }
+            }
+        });
+        List<UserDto> users = new ArrayList<>(smallest.size());
+        smallest.stream()
+                .sorted()
+                .forEach(id -> storage.findUser(id).map(UserServiceImplStorage::toDto).ifPresent(users::add));
+        return users;
+    }
+
+    /**
+     * Пользователи передаются в порядке обхода сегментов хранилища, а не по возрастанию id.
+     */
+    @Override
+    public void exportUsersWithBooks(Consumer<UserBooksDto> consumer) {
+        storage.forEachUserId(id -> storage.findUser(id).ifPresent(user -> {
+            List<BookDto> books = new ArrayList<>();
+            try {
+                for (long bookId : storage.findBookIds(id)) {
+                    storage.findBook(bookId).map(UserServiceImplStorage::toBookDto).ifPresent(books::add);
+                }
+            } catch (NotFoundException e) {
+                return;
+            }
+            consumer.accept(new UserBooksDto(toDto(user), books));
+        }));
+    }
+
+    @Override
+    public void deleteUserById(Long id) {
+        storage.deleteUser(id);
+    }
+
+    @Override
+    public int deleteUsersByIds(List<Long> ids) {
+        int deleted = 0;
+        for (Long id : ids) {
+            if (storage.deleteUser(id)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private static UserRecord toRecord(long id, UserDto userDto) {
+        return new UserRecord(id, userDto.getFullName(), userDto.getTitle(), userDto.getAge());
+    }
+
+    private static BookDto toBookDto(BookRecord book) {
+        BookDto bookDto = new BookDto();
+        bookDto.setId(book.id());
+        bookDto.setUserId(book.userId());
+        bookDto.setTitle(book.title());
+        bookDto.setAuthor(book.author());
+        bookDto.setPageCount(book.pageCount());
+        return bookDto;
+    }
+
+    private static UserDto toDto(UserRecord user) {
+        UserDto userDto = new UserDto();
+        userDto.setId(user.id());
+        userDto.setFullName(user.fullName());
+        userDto.setTitle(user.title());
+        userDto.setAge(user.age());
+        return userDto;
+    }
+}
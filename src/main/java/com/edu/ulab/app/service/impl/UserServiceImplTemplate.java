@@ -1,60 +1,243 @@
 package com.edu.ulab.app.service.impl;
 
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserBooksDto;
 import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.id.IdAllocator;
 import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.web.response.UserBookResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.PreparedStatementCreator;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.sql.Connection;
+import java.sql.Array;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 public class UserServiceImplTemplate implements UserService {
+    static final String INSERT_SQL = "INSERT INTO ulab_edu.person(ID, FULL_NAME, TITLE, AGE) VALUES (?,?,?,?)";
+    /**
+     * Версия не проверяется, клиент её не передаёт, но увеличивается: сущности JPA и фасад на R2DBC работают
+     * с теми же таблицами, и без увеличения их запись поверх изменения через JdbcTemplate прошла бы молча.
+     */
+    static final String UPDATE_SQL =
+            "UPDATE ulab_edu.person SET FULL_NAME = ?, TITLE = ?, AGE = ?, VERSION = VERSION + 1 WHERE ID = ?";
+    static final String SELECT_BY_ID_SQL = "SELECT ID, FULL_NAME, TITLE, AGE FROM ulab_edu.person WHERE ID = ?";
+    /**
+     * Книги и пользователи удаляются одним statement: удаление книг вынесено в CTE.
+     */
+    static final String DELETE_WITH_BOOKS_SQL = """
+            WITH deleted_books AS (DELETE FROM ulab_edu.book WHERE PERSON_ID = ANY (?))
+            DELETE FROM ulab_edu.person WHERE ID = ANY (?)""";
+    static final String SELECT_PAGE_SQL =
+            "SELECT ID, FULL_NAME, TITLE, AGE FROM ulab_edu.person WHERE ID > ? ORDER BY ID LIMIT ?";
+    static final String EXPORT_SQL = """
+            SELECT p.ID AS USER_ID, p.FULL_NAME, p.TITLE AS USER_TITLE, p.AGE,
+                   b.ID AS BOOK_ID, b.TITLE AS BOOK_TITLE, b.AUTHOR, b.PAGE_COUNT
+            FROM ulab_edu.person p
+                     LEFT JOIN ulab_edu.book b ON b.PERSON_ID = p.ID
+            ORDER BY p.ID, b.ID""";
+    static final String SELECT_WITH_BOOK_IDS_SQL = """
+            SELECT p.ID AS USER_ID, b.ID AS BOOK_ID
+            FROM ulab_edu.person p
+                     LEFT JOIN ulab_edu.book b ON b.PERSON_ID = p.ID
+            WHERE p.ID = ?
+            ORDER BY b.ID""";
+    private static final RowMapper<UserDto> USER_ROW_MAPPER = (rs, rowNum) -> {
+        UserDto userDto = new UserDto();
+        userDto.setId(rs.getLong("ID"));
+        userDto.setFullName(rs.getString("FULL_NAME"));
+        userDto.setTitle(rs.getString("TITLE"));
+        userDto.setAge(rs.getInt("AGE"));
+        return userDto;
+    };
+    /**
+     * Собирает ответ прямо из строк соединения, не создавая промежуточных объектов на каждую книгу.
+     */
+    private static final ResultSetExtractor<UserBookResponse> USER_WITH_BOOK_IDS_EXTRACTOR = rs -> {
+        if (!rs.next()) {
+            return null;
+        }
+        long userId = rs.getLong("USER_ID");
+        List<Long> bookIds = new ArrayList<>();
+        do {
+            long bookId = rs.getLong("BOOK_ID");
+            if (!rs.wasNull()) {
+                bookIds.add(bookId);
+            }
+        } while (rs.next());
+        return UserBookResponse.builder()
+                .userId(userId)
+                .booksIdList(bookIds)
+                .build();
+    };
+
     private final JdbcTemplate jdbcTemplate;
+    private final IdAllocator idAllocator;
+    private final int batchSize;
+    private final int fetchSize;
 
-    public UserServiceImplTemplate(JdbcTemplate jdbcTemplate) {
+    public UserServiceImplTemplate(JdbcTemplate jdbcTemplate,
+                                   IdAllocator idAllocator,
+                                   @Value("${app.jdbc.batch-size:100}") int batchSize,
+                                   @Value("${app.jdbc.fetch-size:1000}") int fetchSize) {
         this.jdbcTemplate = jdbcTemplate;
+        this.idAllocator = idAllocator;
+        this.batchSize = batchSize;
+        this.fetchSize = fetchSize;
     }
 
     @Override
     public UserDto createUser(UserDto userDto) {
-
-        final String INSERT_SQL = "INSERT INTO PERSON(FULL_NAME, TITLE, AGE) VALUES (?,?,?)";
-        KeyHolder keyHolder = new GeneratedKeyHolder();
-        jdbcTemplate.update(
-                connection -> {
-                    PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[]{"id"});
-                    ps.setString(1, userDto.getFullName());
-                    ps.setString(2, userDto.getTitle());
-                    ps.setLong(3, userDto.getAge());
-                    return ps;
-                }, keyHolder);
-
-        userDto.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
+        userDto.setId(idAllocator.nextId());
+        jdbcTemplate.update(INSERT_SQL, ps -> setInsertParameters(ps, userDto));
         return userDto;
     }
 
+    /**
+     * Сохраняет пользователей пачками по {@code app.jdbc.batch-size} строк в одной транзакции,
+     * идентификаторы резервируются заранее одним обращением к последовательности.
+     */
+    @Override
+    @Transactional
+    public List<UserDto> createUsers(List<UserDto> userDtos) {
+        long[] ids = idAllocator.nextIds(userDtos.size());
+        for (int i = 0; i < ids.length; i++) {
+            userDtos.get(i).setId(ids[i]);
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, userDtos, batchSize, UserServiceImplTemplate::setInsertParameters);
+        return userDtos;
+    }
+
+    private static void setInsertParameters(PreparedStatement ps, UserDto userDto) throws SQLException {
+        ps.setLong(1, userDto.getId());
+        ps.setString(2, userDto.getFullName());
+        ps.setString(3, userDto.getTitle());
+        ps.setLong(4, userDto.getAge());
+    }
+
     @Override
     public UserDto updateUser(UserDto userDto) {
-        // реализовать недстающие методы
-        return null;
+        int updated = jdbcTemplate.update(UPDATE_SQL, ps -> {
+            ps.setString(1, userDto.getFullName());
+            ps.setString(2, userDto.getTitle());
+            ps.setInt(3, userDto.getAge());
+            ps.setLong(4, userDto.getId());
+        });
+        if (updated == 0) {
+            throw new NotFoundException("User with id " + userDto.getId() + " not found");
+        }
+        return userDto;
     }
 
     @Override
     public UserDto getUserById(Long id) {
-        // реализовать недстающие методы
-        return null;
+        return jdbcTemplate.query(SELECT_BY_ID_SQL, USER_ROW_MAPPER, id)
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException("User with id " + id + " not found"));
+    }
+
+    @Override
+    public UserBookResponse getUserWithBooks(Long id) {
+        UserBookResponse response = jdbcTemplate.query(SELECT_WITH_BOOK_IDS_SQL, USER_WITH_BOOK_IDS_EXTRACTOR, id);
+        if (response == null) {
+            throw new NotFoundException("User with id " + id + " not found");
+        }
+        return response;
+    }
+
+    @Override
+    public List<UserDto> getUsersAfter(long afterId, int limit) {
+        return jdbcTemplate.query(SELECT_PAGE_SQL, USER_ROW_MAPPER, afterId, limit);
+    }
+
+    /**
+     * Читает соединение пользователей с книгами курсором по {@code app.jdbc.fetch-size} строк.
+     * Курсор PostgreSQL работает только вне autocommit, поэтому метод выполняется в транзакции только для чтения.
+     * Строки упорядочены по пользователю, так что пользователь передаётся дальше, как только начинается следующий.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportUsersWithBooks(Consumer<UserBooksDto> consumer) {
+        UserBooksCollector collector = new UserBooksCollector(consumer);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, collector);
+        collector.finish();
     }
 
     @Override
     public void deleteUserById(Long id) {
-        // реализовать недстающие методы
+        deleteUsersByIds(List.of(id));
+    }
+
+    @Override
+    public int deleteUsersByIds(List<Long> ids) {
+        int deleted = jdbcTemplate.update(DELETE_WITH_BOOKS_SQL, ps -> {
+            Array idArray = ps.getConnection().createArrayOf("bigint", ids.toArray());
+            ps.setArray(1, idArray);
+            ps.setArray(2, idArray);
+        });
+        log.info("Deleted {} of {} users with their books", deleted, ids.size());
+        return deleted;
+    }
+
+    /**
+     * Собирает подряд идущие строки одного пользователя в {@link UserBooksDto}.
+     */
+    private static final class UserBooksCollector implements RowCallbackHandler {
+        private final Consumer<UserBooksDto> consumer;
+        private UserBooksDto current;
+
+        private UserBooksCollector(Consumer<UserBooksDto> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long userId = rs.getLong("USER_ID");
+            if (current == null || current.getUser().getId() != userId) {
+                finish();
+                UserDto userDto = new UserDto();
+                userDto.setId(userId);
+                userDto.setFullName(rs.getString("FULL_NAME"));
+                userDto.setTitle(rs.getString("USER_TITLE"));
+                userDto.setAge(rs.getInt("AGE"));
+                current = new UserBooksDto(userDto, new ArrayList<>());
+            }
+            long bookId = rs.getLong("BOOK_ID");
+            if (!rs.wasNull()) {
+                BookDto bookDto = new BookDto();
+                bookDto.setId(bookId);
+                bookDto.setUserId(userId);
+                bookDto.setTitle(rs.getString("BOOK_TITLE"));
+                bookDto.setAuthor(rs.getString("AUTHOR"));
+                bookDto.setPageCount(rs.getLong("PAGE_COUNT"));
+                current.getBooks().add(bookDto);
+            }
+        }
+
+        private void finish() {
+            if (current != null) {
+                consumer.accept(current);
+                current = null;
+            }
+        }
     }
 }
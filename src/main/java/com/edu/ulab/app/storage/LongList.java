@@ -0,0 +1,62 @@
+package com.edu.ulab.app.storage;
+
+import java.util.Arrays;
+
+/**
+ * Растущий массив {@code long} без упаковки элементов. Сохраняет порядок добавления. Не потокобезопасен.
+ */
+public class LongList {
+    private static final long[] EMPTY = new long[0];
+
+    private long[] values;
+    private int size;
+
+    public LongList() {
+        this.values = EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return values[index];
+    }
+
+    public void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(4, size + (size >> 1)));
+        }
+        values[size++] = value;
+    }
+
+    public boolean contains(long value) {
+        return indexOf(value) >= 0;
+    }
+
+    public boolean remove(long value) {
+        int index = indexOf(value);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    private int indexOf(long value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,175 @@
+package com.edu.ulab.app.storage;
+
+import java.util.Arrays;
+
+/**
+ * Хэш-таблица с ключами {@code long} без упаковки в {@link Long}: открытая адресация с линейным пробированием.
+ * Ключ {@code 0} зарезервирован под пустую ячейку. Не потокобезопасна.
+ *
+ * @param <V> тип значения
+ */
+public class LongObjectMap<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    public LongObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongObjectMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int index = indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return предыдущее значение или null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        checkKey(key);
+        int index = slot(key);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * @return удалённое значение или null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V previous = (V) values[index];
+        shiftBack(index);
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<V> consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    private int indexOf(long key) {
+        checkKey(key);
+        int index = slot(key);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Удаление без надгробий: сдвигаем назад элементы цепочки, которые могут занять освободившуюся ячейку.
+     */
+    private void shiftBack(int gap) {
+        int index = (gap + 1) & mask;
+        while (keys[index] != 0) {
+            int home = slot(keys[index]);
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[gap] = 0;
+        values[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int index = slot(oldKeys[i]);
+                while (keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = capacity >> 1;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2) - 1) << 1;
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Expected size is too large: " + expectedSize);
+        }
+        return capacity;
+    }
+
+    private static void checkKey(long key) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+    }
+
+    @FunctionalInterface
+    public interface Consumer<V> {
+        void accept(long key, V value);
+    }
+}
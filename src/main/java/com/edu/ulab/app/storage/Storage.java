@@ -1,11 +1,432 @@
 package com.edu.ulab.app.storage;
 
+import com.edu.ulab.app.exception.NotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Хранилище пользователей и книг в памяти.
+ * <p>
+ * Записи лежат в {@link LongObjectMap} по примитивным ключам, связь пользователь → книги хранится
+ * компактным {@link LongList} идентификаторов. Идентификаторы генерируются при сохранении,
+ * переданный в записи идентификатор игнорируется.
+ * <p>
+ * Данные разбиты на сегменты по идентификатору пользователя, у каждого сегмента своя блокировка чтения/записи.
+ * Книга живёт в сегменте своего пользователя, а младшие {@value #STRIPE_ID_BITS} бит её идентификатора
+ * совпадают с младшими битами идентификатора пользователя, поэтому любая операция затрагивает ровно один сегмент
+ * и операции с разными пользователями не конкурируют. Разбиение идентификатора не зависит от числа сегментов,
+ * так что восстановленные данные остаются корректными и при другом {@code app.storage.stripes}.
+ * <p>
+ * Все изменения передаются в {@link StorageJournal}, подключённый через {@link #attachJournal(StorageJournal)}.
+ * Последовательности идентификаторов никогда не откатываются назад: выданный однажды идентификатор не выдаётся
+ * повторно, даже если запись с ним удалена, и это сохраняется при восстановлении через
+ * {@link #restoreSequences(long, long)}.
+ */
+@Component
 public class Storage {
-    //todo создать хранилище в котором будут содержаться данные
-    // сделать абстракции через которые можно будет производить операции с хранилищем
-    // продумать логику поиска и сохранения
-    // продумать возможные ошибки
-    // учесть, что при сохранеии юзера или книги, должен генерироваться идентификатор
-    // продумать что у узера может быть много книг и нужно создать эту связь
-    // так же учесть, что методы хранилища принимают друго тип данных - учесть это в абстракции
+    private static final int STRIPE_ID_BITS = 10;
+    private static final int MAX_STRIPES = 1 << STRIPE_ID_BITS;
+
+    private final AtomicLong userIds = new AtomicLong();
+    private final Segment[] segments;
+    private final int segmentMask;
+    private volatile StorageJournal journal = StorageJournal.NOOP;
+
+    /**
+     * @param stripes число сегментов, округляется вверх до степени двойки, не больше {@value #MAX_STRIPES};
+     *                0 — по четыре на ядро
+     */
+    public Storage(@Value("${app.storage.stripes:0}") int stripes) {
+        int wanted = Math.min(MAX_STRIPES, stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors() * 4);
+        int count = wanted == 1 ? 1 : Integer.highestOneBit(wanted - 1) << 1;
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment();
+        }
+        this.segmentMask = count - 1;
+    }
+
+    /**
+     * Подключает журнал и первой записью передаёт в него текущие значения последовательностей.
+     * На время переключения все сегменты заблокированы на запись, так что каждое изменение попадает
+     * ровно в один журнал.
+     */
+    public void attachJournal(StorageJournal journal) {
+        for (Segment segment : segments) {
+            segment.writeLock().lock();
+        }
+        try {
+            journal.sequencesReached(userIds.get(), bookSequence());
+            this.journal = journal;
+        } finally {
+            for (int i = segments.length - 1; i >= 0; i--) {
+                segments[i].writeLock().unlock();
+            }
+        }
+    }
+
+    public UserRecord createUser(UserRecord user) {
+        UserRecord created = user.withId(userIds.incrementAndGet());
+        Segment segment = segmentOf(created.id());
+        Lock lock = segment.writeLock();
+        lock.lock();
+        try {
+            segment.users.put(created.id(), created);
+            segment.userBookIds.put(created.id(), new LongList());
+            journal.userSaved(created);
+        } finally {
+            lock.unlock();
+        }
+        return created;
+    }
+
+    public UserRecord updateUser(UserRecord user) {
+        Segment segment = segmentOf(user.id());
+        Lock lock = segment.writeLock();
+        lock.lock();
+        try {
+            if (!segment.users.containsKey(user.id())) {
+                throw userNotFound(user.id());
+            }
+            segment.users.put(user.id(), user);
+            journal.userSaved(user);
+        } finally {
+            lock.unlock();
+        }
+        return user;
+    }
+
+    public Optional<UserRecord> findUser(long id) {
+        Segment segment = segmentOf(id);
+        Lock lock = segment.readLock();
+        lock.lock();
+        try {
+            return Optional.ofNullable(segment.users.get(id));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return идентификаторы книг пользователя в порядке добавления
+     * @throws NotFoundException если пользователя нет
+     */
+    public long[] findBookIds(long userId) {
+        Segment segment = segmentOf(userId);
+        Lock lock = segment.readLock();
+        lock.lock();
+        try {
+            return segment.bookIdsOf(userId).toArray();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Удаляет пользователя вместе с его книгами.
+     *
+     * @return false, если пользователя не было
+     */
+    public boolean deleteUser(long id) {
+        Segment segment = segmentOf(id);
+        Lock lock = segment.writeLock();
+        lock.lock();
+        try {
+            LongList bookIdList = segment.userBookIds.remove(id);
+            if (bookIdList == null) {
+                return false;
+            }
+            for (int i = 0; i < bookIdList.size(); i++) {
+                segment.books.remove(bookIdList.get(i));
+            }
+            segment.users.remove(id);
+            journal.userDeleted(id);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public BookRecord createBook(BookRecord book) {
+        Segment segment = segmentOf(book.userId());
+        Lock lock = segment.writeLock();
+        lock.lock();
+        try {
+            return segment.insertBook(book, segment.bookIdsOf(book.userId()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Сохраняет книги, захватывая блокировку один раз на каждую серию книг одного пользователя.
+     */
+    public List<BookRecord> createBooks(List<BookRecord> bookRecords) {
+        List<BookRecord> created = new ArrayList<>(bookRecords.size());
+        int from = 0;
+        while (from < bookRecords.size()) {
+            long userId = bookRecords.get(from).userId();
+            int to = from + 1;
+            while (to < bookRecords.size() && bookRecords.get(to).userId() == userId) {
+                to++;
+            }
+
+            Segment segment = segmentOf(userId);
+            Lock lock = segment.writeLock();
+            lock.lock();
+            try {
+                LongList bookIdList = segment.bookIdsOf(userId);
+                for (int i = from; i < to; i++) {
+                    created.add(segment.insertBook(bookRecords.get(i), bookIdList));
+                }
+            } finally {
+                lock.unlock();
+            }
+            from = to;
+        }
+        return created;
+    }
+
+    /**
+     * Книга не может сменить пользователя: её идентификатор привязан к сегменту владельца.
+     */
+    public BookRecord updateBook(BookRecord book) {
+        Segment segment = segmentOf(book.id());
+        Lock lock = segment.writeLock();
+        lock.lock();
+        try {
+            BookRecord stored = segment.books.get(book.id());
+            if (stored == null) {
+                throw bookNotFound(book.id());
+            }
+            if (stored.userId() != book.userId()) {
+                throw new IllegalArgumentException("Book with id " + book.id()
+                        + " belongs to user with id " + stored.userId());
+            }
+            segment.books.put(book.id(), book);
+            journal.bookSaved(book);
+        } finally {
+            lock.unlock();
+        }
+        return book;
+    }
+
+    public Optional<BookRecord> findBook(long id) {
+        Segment segment = segmentOf(id);
+        Lock lock = segment.readLock();
+        lock.lock();
+        try {
+            return Optional.ofNullable(segment.books.get(id));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return false, если книги не было
+     */
+    public boolean deleteBook(long id) {
+        Segment segment = segmentOf(id);
+        Lock lock = segment.writeLock();
+        lock.lock();
+        try {
+            BookRecord removed = segment.books.remove(id);
+            if (removed == null) {
+                return false;
+            }
+            segment.userBookIds.get(removed.userId()).remove(id);
+            journal.bookDeleted(id);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Обходит всех пользователей и книги сегмент за сегментом. Каждый сегмент обходится под своей блокировкой чтения,
+     * но в целом обход не является атомарным снимком хранилища.
+     */
+    public void forEach(Consumer<UserRecord> userConsumer, Consumer<BookRecord> bookConsumer) {
+        for (Segment segment : segments) {
+            Lock lock = segment.readLock();
+            lock.lock();
+            try {
+                segment.users.forEach((id, user) -> userConsumer.accept(user));
+                segment.books.forEach((id, book) -> bookConsumer.accept(book));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Передаёт идентификаторы всех пользователей в неопределённом порядке. Идентификаторы сегмента копируются
+     * под блокировкой чтения, а потребитель вызывается уже без неё, поэтому медленный потребитель
+     * не задерживает запись. Пользователи, созданные или удалённые во время обхода, могут как попасть, так и нет.
+     */
+    public void forEachUserId(LongConsumer consumer) {
+        for (Segment segment : segments) {
+            long[] ids;
+            Lock lock = segment.readLock();
+            lock.lock();
+            try {
+                ids = new long[segment.users.size()];
+                int[] count = {0};
+                segment.users.forEach((id, user) -> ids[count[0]++] = id);
+            } finally {
+                lock.unlock();
+            }
+            for (long id : ids) {
+                consumer.accept(id);
+            }
+        }
+    }
+
+    /**
+     * Восстанавливает пользователя с заданным идентификатором, не передавая изменение в журнал.
+     */
+    public void restoreUser(UserRecord user) {
+        userIds.accumulateAndGet(user.id(), Math::max);
+        Segment segment = segmentOf(user.id());
+        Lock lock = segment.writeLock();
+        lock.lock();
+        try {
+            segment.users.put(user.id(), user);
+            if (!segment.userBookIds.containsKey(user.id())) {
+                segment.userBookIds.put(user.id(), new LongList());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Восстанавливает книгу с заданным идентификатором, не передавая изменение в журнал.
+     */
+    public void restoreBook(BookRecord book) {
+        Segment segment = segmentOf(book.id());
+        Lock lock = segment.writeLock();
+        lock.lock();
+        try {
+            LongList bookIdList = segment.bookIdsOf(book.userId());
+            if (segment.books.put(book.id(), book) == null) {
+                bookIdList.add(book.id());
+            }
+            segment.bookSequence = Math.max(segment.bookSequence, book.id() >>> STRIPE_ID_BITS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Поднимает последовательности пользователей и книг не ниже сохранённых значений, не передавая изменение в журнал.
+     * Последовательность книг одна на все сегменты, поэтому восстановление не зависит от числа сегментов.
+     */
+    public void restoreSequences(long userSequence, long bookSequence) {
+        userIds.accumulateAndGet(userSequence, Math::max);
+        for (Segment segment : segments) {
+            Lock lock = segment.writeLock();
+            lock.lock();
+            try {
+                segment.bookSequence = Math.max(segment.bookSequence, bookSequence);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Снимает согласованный срез: на время копирования ссылок на записи все сегменты заблокированы на запись,
+     * и внутри этой же блокировки выполняется {@code atCut}. Записи неизменяемы, поэтому копируются только ссылки.
+     */
+    public StorageImage capture(Runnable atCut) {
+        for (Segment segment : segments) {
+            segment.writeLock().lock();
+        }
+        try {
+            atCut.run();
+            int userCount = 0;
+            int bookCount = 0;
+            for (Segment segment : segments) {
+                userCount += segment.users.size();
+                bookCount += segment.books.size();
+            }
+            List<UserRecord> users = new ArrayList<>(userCount);
+            List<BookRecord> books = new ArrayList<>(bookCount);
+            for (Segment segment : segments) {
+                segment.users.forEach((id, user) -> users.add(user));
+                segment.books.forEach((id, book) -> books.add(book));
+            }
+            return new StorageImage(userIds.get(), bookSequence(), users, books);
+        } finally {
+            for (int i = segments.length - 1; i >= 0; i--) {
+                segments[i].writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Наибольшее значение последовательности книг среди сегментов. Вызывается под блокировкой всех сегментов.
+     */
+    private long bookSequence() {
+        long max = 0;
+        for (Segment segment : segments) {
+            max = Math.max(max, segment.bookSequence);
+        }
+        return max;
+    }
+
+    private Segment segmentOf(long id) {
+        return segments[(int) id & segmentMask];
+    }
+
+    private static NotFoundException userNotFound(long id) {
+        return new NotFoundException("User with id " + id + " not found");
+    }
+
+    private static NotFoundException bookNotFound(long id) {
+        return new NotFoundException("Book with id " + id + " not found");
+    }
+
+    private final class Segment {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final LongObjectMap<UserRecord> users = new LongObjectMap<>();
+        private final LongObjectMap<BookRecord> books = new LongObjectMap<>();
+        private final LongObjectMap<LongList> userBookIds = new LongObjectMap<>();
+        private long bookSequence;
+
+        private Lock readLock() {
+            return lock.readLock();
+        }
+
+        private Lock writeLock() {
+            return lock.writeLock();
+        }
+
+        private LongList bookIdsOf(long userId) {
+            LongList bookIdList = userBookIds.get(userId);
+            if (bookIdList == null) {
+                throw userNotFound(userId);
+            }
+            return bookIdList;
+        }
+
+        private BookRecord insertBook(BookRecord book, LongList bookIdList) {
+            long id = (++bookSequence << STRIPE_ID_BITS) | (book.userId() & (MAX_STRIPES - 1));
+            BookRecord created = book.withId(id);
+            books.put(id, created);
+            bookIdList.add(id);
+            journal.bookSaved(created);
+            return created;
+        }
+    }
 }
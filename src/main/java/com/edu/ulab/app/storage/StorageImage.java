@@ -0,0 +1,9 @@
+package com.edu.ulab.app.storage;
+
+import java.util.List;
+
+/**
+ * Согласованный срез содержимого {@link Storage} вместе со значениями последовательностей идентификаторов.
+ */
+public record StorageImage(long userSequence, long bookSequence, List<UserRecord> users, List<BookRecord> books) {
+}
@@ -0,0 +1,31 @@
+package com.edu.ulab.app.storage;
+
+/**
+ * Получатель изменений {@link Storage}. Вызывается под блокировкой сегмента после применения изменения,
+ * поэтому изменения одного пользователя приходят в том же порядке, в котором применялись.
+ */
+public interface StorageJournal {
+    StorageJournal NOOP = new StorageJournal() {
+    };
+
+    default void userSaved(UserRecord user) {
+    }
+
+    /**
+     * Удаление пользователя удаляет и его книги, отдельных событий по книгам не будет.
+     */
+    default void userDeleted(long id) {
+    }
+
+    default void bookSaved(BookRecord book) {
+    }
+
+    default void bookDeleted(long id) {
+    }
+
+    /**
+     * Значения последовательностей пользователей и книг, ниже которых они не должны опускаться после восстановления.
+     */
+    default void sequencesReached(long userSequence, long bookSequence) {
+    }
+}
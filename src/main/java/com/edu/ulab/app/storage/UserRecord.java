@@ -0,0 +1,11 @@
+package com.edu.ulab.app.storage;
+
+/**
+ * Пользователь в хранилище.
+ */
+public record UserRecord(long id, String fullName, String title, int age) {
+
+    public UserRecord withId(long id) {
+        return new UserRecord(id, fullName, title, age);
+    }
+}
@@ -0,0 +1,105 @@
+package com.edu.ulab.app.storage.persistence;
+
+import com.edu.ulab.app.storage.BookRecord;
+import com.edu.ulab.app.storage.StorageJournal;
+import com.edu.ulab.app.storage.UserRecord;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Двоичный формат изменений {@link com.edu.ulab.app.storage.Storage}, общий для журнала и снимков.
+ * Экземпляр переиспользует буфер и не потокобезопасен.
+ */
+class JournalCodec {
+    private static final byte USER_SAVED = 1;
+    private static final byte USER_DELETED = 2;
+    private static final byte BOOK_SAVED = 3;
+    private static final byte BOOK_DELETED = 4;
+    private static final byte SEQUENCES = 5;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(512);
+
+    ByteBuffer userSaved(UserRecord user) {
+        byte[] fullName = bytes(user.fullName());
+        byte[] title = bytes(user.title());
+        ByteBuffer out = buffer(1 + 8 + 4 + 4 + stringSize(fullName) + stringSize(title));
+        out.put(USER_SAVED).putLong(user.id());
+        putString(out, fullName);
+        putString(out, title);
+        out.putInt(user.age());
+        return out.flip();
+    }
+
+    ByteBuffer userDeleted(long id) {
+        return buffer(1 + 8).put(USER_DELETED).putLong(id).flip();
+    }
+
+    ByteBuffer bookSaved(BookRecord book) {
+        byte[] title = bytes(book.title());
+        byte[] author = bytes(book.author());
+        ByteBuffer out = buffer(1 + 8 + 8 + 8 + stringSize(title) + stringSize(author));
+        out.put(BOOK_SAVED).putLong(book.id()).putLong(book.userId());
+        putString(out, title);
+        putString(out, author);
+        out.putLong(book.pageCount());
+        return out.flip();
+    }
+
+    ByteBuffer bookDeleted(long id) {
+        return buffer(1 + 8).put(BOOK_DELETED).putLong(id).flip();
+    }
+
+    ByteBuffer sequences(long userSequence, long bookSequence) {
+        return buffer(1 + 8 + 8).put(SEQUENCES).putLong(userSequence).putLong(bookSequence).flip();
+    }
+
+    /**
+     * Разбирает одно изменение и передаёт его в {@code target}.
+     */
+    static void decode(ByteBuffer in, StorageJournal target) {
+        byte type = in.get();
+        switch (type) {
+            case USER_SAVED -> target.userSaved(new UserRecord(in.getLong(), getString(in), getString(in), in.getInt()));
+            case USER_DELETED -> target.userDeleted(in.getLong());
+            case BOOK_SAVED -> target.bookSaved(
+                    new BookRecord(in.getLong(), in.getLong(), getString(in), getString(in), in.getLong()));
+            case BOOK_DELETED -> target.bookDeleted(in.getLong());
+            case SEQUENCES -> target.sequencesReached(in.getLong(), in.getLong());
+            default -> throw new IllegalStateException("Unknown journal record type: " + type);
+        }
+    }
+
+    private ByteBuffer buffer(int size) {
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(Math.max(size, buffer.capacity() * 2));
+        }
+        return buffer.clear();
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(byte[] value) {
+        return 4 + (value == null ? 0 : value.length);
+    }
+
+    private static void putString(ByteBuffer out, byte[] value) {
+        if (value == null) {
+            out.putInt(-1);
+        } else {
+            out.putInt(value.length).put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        in.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
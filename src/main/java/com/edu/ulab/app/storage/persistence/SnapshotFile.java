@@ -0,0 +1,79 @@
+package com.edu.ulab.app.storage.persistence;
+
+import com.edu.ulab.app.storage.BookRecord;
+import com.edu.ulab.app.storage.StorageImage;
+import com.edu.ulab.app.storage.StorageJournal;
+import com.edu.ulab.app.storage.UserRecord;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Сжатый снимок хранилища: значения последовательностей и только актуальные пользователи и книги
+ * в формате {@link JournalCodec}.
+ * Файл пишется во временный и атомарно переименовывается, поэтому недописанный снимок никогда не виден.
+ */
+public final class SnapshotFile {
+    private static final int MAGIC = 0x534E5031;
+
+    private SnapshotFile() {
+    }
+
+    public static void write(Path file, StorageImage image) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        JournalCodec codec = new JournalCodec();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            out.writeInt(MAGIC);
+            writeRecord(out, codec.sequences(image.userSequence(), image.bookSequence()));
+            for (UserRecord user : image.users()) {
+                writeRecord(out, codec.userSaved(user));
+            }
+            for (BookRecord book : image.books()) {
+                writeRecord(out, codec.bookSaved(book));
+            }
+            out.writeInt(0);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return число прочитанных записей
+     */
+    public static long read(Path file, StorageJournal target) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            long records = 0;
+            byte[] payload = new byte[512];
+            for (int length = in.readInt(); length != 0; length = in.readInt()) {
+                if (payload.length < length) {
+                    payload = new byte[length];
+                }
+                in.readFully(payload, 0, length);
+                JournalCodec.decode(ByteBuffer.wrap(payload, 0, length), target);
+                records++;
+            }
+            return records;
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, ByteBuffer payload) throws IOException {
+        out.writeInt(payload.remaining());
+        out.write(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining());
+    }
+}
@@ -0,0 +1,169 @@
+package com.edu.ulab.app.storage.persistence;
+
+import com.edu.ulab.app.storage.BookRecord;
+import com.edu.ulab.app.storage.Storage;
+import com.edu.ulab.app.storage.StorageImage;
+import com.edu.ulab.app.storage.StorageJournal;
+import com.edu.ulab.app.storage.UserRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Долговечность {@link Storage}: журнал изменений и периодические снимки.
+ * <p>
+ * Журналы пронумерованы поколениями. Снимок поколения {@code g} содержит все изменения из журналов
+ * поколений не старше {@code g}, поэтому при старте читается последний снимок и журналы новее него,
+ * после чего запись продолжается в журнал нового поколения. Снимок и каждый журнал начинаются со значений
+ * последовательностей идентификаторов, поэтому после удаления самых новых записей их идентификаторы
+ * не выдаются повторно. Чтение из хранилища на диск не ходит.
+ */
+@Slf4j
+public class StoragePersistence implements Closeable {
+    private static final Pattern WAL_FILE = Pattern.compile("wal-(\\d+)\\.log");
+    private static final Pattern SNAPSHOT_FILE = Pattern.compile("snapshot-(\\d+)\\.bin");
+
+    private final Storage storage;
+    private final Path directory;
+    private final int walChunkSize;
+    private WriteAheadLog wal;
+    private long generation;
+
+    public StoragePersistence(Storage storage, StoragePersistenceProperties properties) {
+        this.storage = storage;
+        this.directory = properties.getDirectory();
+        this.walChunkSize = Math.toIntExact(properties.getWalChunkSize().toBytes());
+    }
+
+    @PostConstruct
+    public synchronized void recover() throws IOException {
+        Files.createDirectories(directory);
+        StorageJournal restorer = new Restorer(storage);
+
+        long snapshotGeneration = latestGeneration(SNAPSHOT_FILE);
+        if (snapshotGeneration >= 0) {
+            long records = SnapshotFile.read(snapshotPath(snapshotGeneration), restorer);
+            log.info("Loaded {} records from snapshot {}", records, snapshotGeneration);
+        }
+        generation = snapshotGeneration;
+        for (long walGeneration : generations(WAL_FILE)) {
+            if (walGeneration > snapshotGeneration) {
+                long records = WriteAheadLog.replay(walPath(walGeneration), restorer);
+                log.info("Replayed {} records from WAL {}", records, walGeneration);
+            }
+            generation = Math.max(generation, walGeneration);
+        }
+
+        wal = WriteAheadLog.create(walPath(++generation), walChunkSize);
+        storage.attachJournal(wal);
+    }
+
+    /**
+     * Снимает снимок по срезу, на котором журнал переключается на новое поколение, и удаляет вошедшие в него журналы.
+     */
+    @Scheduled(fixedDelayString = "${app.storage.persistence.snapshot-interval:PT5M}",
+            initialDelayString = "${app.storage.persistence.snapshot-interval:PT5M}")
+    public synchronized void snapshot() throws IOException {
+        long cut = generation;
+        WriteAheadLog previous = wal;
+        StorageImage image = storage.capture(() -> {
+            try {
+                wal = WriteAheadLog.create(walPath(++generation), walChunkSize);
+                storage.attachJournal(wal);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open WAL " + generation, e);
+            }
+        });
+        previous.close();
+
+        SnapshotFile.write(snapshotPath(cut), image);
+        log.info("Wrote snapshot {} with {} users and {} books", cut, image.users().size(), image.books().size());
+
+        for (long walGeneration : generations(WAL_FILE)) {
+            if (walGeneration <= cut) {
+                Files.deleteIfExists(walPath(walGeneration));
+            }
+        }
+        for (long snapshotGeneration : generations(SNAPSHOT_FILE)) {
+            if (snapshotGeneration < cut) {
+                Files.deleteIfExists(snapshotPath(snapshotGeneration));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.persistence.fsync-interval:PT1S}")
+    public synchronized void force() {
+        wal.force();
+    }
+
+    @Override
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        storage.attachJournal(StorageJournal.NOOP);
+        wal.close();
+    }
+
+    private Path walPath(long walGeneration) {
+        return directory.resolve(String.format("wal-%019d.log", walGeneration));
+    }
+
+    private Path snapshotPath(long snapshotGeneration) {
+        return directory.resolve(String.format("snapshot-%019d.bin", snapshotGeneration));
+    }
+
+    private long latestGeneration(Pattern pattern) throws IOException {
+        List<Long> found = generations(pattern);
+        return found.isEmpty() ? -1 : found.get(found.size() - 1);
+    }
+
+    private List<Long> generations(Pattern pattern) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> pattern.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Применяет прочитанные изменения к хранилищу, сохраняя исходные идентификаторы.
+     */
+    private record Restorer(Storage storage) implements StorageJournal {
+        @Override
+        public void userSaved(UserRecord user) {
+            storage.restoreUser(user);
+        }
+
+        @Override
+        public void userDeleted(long id) {
+            storage.deleteUser(id);
+        }
+
+        @Override
+        public void bookSaved(BookRecord book) {
+            storage.restoreBook(book);
+        }
+
+        @Override
+        public void bookDeleted(long id) {
+            storage.deleteBook(id);
+        }
+
+        @Override
+        public void sequencesReached(long userSequence, long bookSequence) {
+            storage.restoreSequences(userSequence, bookSequence);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.edu.ulab.app.storage.persistence;
+
+import com.edu.ulab.app.storage.Storage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(StoragePersistenceProperties.class)
+@ConditionalOnProperty(prefix = "app.storage.persistence", name = "enabled", havingValue = "true")
+public class StoragePersistenceConfig {
+
+    @Bean
+    public StoragePersistence storagePersistence(Storage storage, StoragePersistenceProperties properties) {
+        return new StoragePersistence(storage, properties);
+    }
+}
@@ -0,0 +1,33 @@
+package com.edu.ulab.app.storage.persistence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.storage.persistence")
+public class StoragePersistenceProperties {
+    /**
+     * Включает журнал и снимки {@link com.edu.ulab.app.storage.Storage}.
+     */
+    private boolean enabled;
+    /**
+     * Каталог журналов и снимков.
+     */
+    private Path directory = Path.of("data", "storage");
+    /**
+     * Размер куска журнала, отображаемого в память за раз.
+     */
+    private DataSize walChunkSize = DataSize.ofMegabytes(64);
+    /**
+     * Период снятия снимка и удаления журналов, которые в него вошли.
+     */
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+    /**
+     * Период сброса журнала на диск.
+     */
+    private Duration fsyncInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,179 @@
+package com.edu.ulab.app.storage.persistence;
+
+import com.edu.ulab.app.storage.BookRecord;
+import com.edu.ulab.app.storage.StorageJournal;
+import com.edu.ulab.app.storage.UserRecord;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Журнал изменений хранилища с записью только в конец, отображённый в память кусками по {@code chunkSize} байт.
+ * <p>
+ * Формат: заголовок {@code [magic, version, chunkSize, 0]}, затем записи {@code [length, crc32, payload]}.
+ * Запись никогда не пересекает границу куска: если места не хватает, пишется маркер {@code -1}
+ * (или ничего, когда до конца куска меньше 8 байт) и запись начинается со следующего куска.
+ * Нулевая длина означает конец журнала, запись с неверной контрольной суммой — оборванный хвост.
+ * <p>
+ * Данные попадают в page cache сразу и переживают падение процесса; {@link #force()} нужен только для защиты
+ * от падения ОС.
+ * <p>
+ * Хранилище пишет в журнал под блокировкой сегмента, поэтому при включённой долговечности запись журнала —
+ * общая для всех сегментов точка. Кодирование и контрольная сумма считаются в потоке писателя до захвата монитора,
+ * под монитором остаётся только копирование в отображённый кусок. Один монитор, а не резервирование места
+ * без блокировки, сохраняет журнал без дыр: запись, завершившаяся раньше предыдущей, после падения процесса
+ * оказалась бы за её нулевой длиной, и восстановление её бы не увидело. Цену см. в {@code StorageJournalBenchmark}.
+ */
+@Slf4j
+public class WriteAheadLog implements StorageJournal, Closeable {
+    private static final int MAGIC = 0x57414C31;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int PADDING = -1;
+    private static final ThreadLocal<JournalCodec> CODECS = ThreadLocal.withInitial(JournalCodec::new);
+
+    private final FileChannel channel;
+    private final int chunkSize;
+    private MappedByteBuffer chunk;
+    private long chunkStart;
+
+    private WriteAheadLog(FileChannel channel, int chunkSize) throws IOException {
+        this.channel = channel;
+        this.chunkSize = chunkSize;
+        this.chunk = channel.map(FileChannel.MapMode.READ_WRITE, 0, chunkSize);
+        chunk.putInt(MAGIC).putInt(VERSION).putInt(chunkSize).putInt(0);
+    }
+
+    public static WriteAheadLog create(Path file, int chunkSize) throws IOException {
+        if (chunkSize < HEADER_SIZE + RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("WAL chunk size is too small: " + chunkSize);
+        }
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new WriteAheadLog(channel, chunkSize);
+    }
+
+    @Override
+    public void userSaved(UserRecord user) {
+        append(CODECS.get().userSaved(user));
+    }
+
+    @Override
+    public void userDeleted(long id) {
+        append(CODECS.get().userDeleted(id));
+    }
+
+    @Override
+    public void bookSaved(BookRecord book) {
+        append(CODECS.get().bookSaved(book));
+    }
+
+    @Override
+    public void bookDeleted(long id) {
+        append(CODECS.get().bookDeleted(id));
+    }
+
+    @Override
+    public void sequencesReached(long userSequence, long bookSequence) {
+        append(CODECS.get().sequences(userSequence, bookSequence));
+    }
+
+    public synchronized void force() {
+        chunk.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        chunk.force();
+        channel.close();
+    }
+
+    private void append(ByteBuffer payload) {
+        int length = payload.remaining();
+        if (RECORD_HEADER_SIZE + length > chunkSize - HEADER_SIZE) {
+            throw new IllegalArgumentException("Journal record of " + length + " bytes does not fit WAL chunk");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        write(length, (int) crc.getValue(), payload);
+    }
+
+    private synchronized void write(int length, int checksum, ByteBuffer payload) {
+        if (chunk.remaining() < RECORD_HEADER_SIZE + length) {
+            if (chunk.remaining() >= Integer.BYTES) {
+                chunk.putInt(PADDING);
+            }
+            nextChunk();
+        }
+        chunk.putInt(length).putInt(checksum).put(payload);
+    }
+
+    private void nextChunk() {
+        try {
+            chunk.force();
+            chunkStart += chunkSize;
+            chunk = channel.map(FileChannel.MapMode.READ_WRITE, chunkStart, chunkSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map next WAL chunk", e);
+        }
+    }
+
+    /**
+     * Применяет к {@code target} все целые записи журнала по порядку.
+     *
+     * @return число применённых записей
+     */
+    public static long replay(Path file, StorageJournal target) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (size < HEADER_SIZE || channel.read(header, 0) < HEADER_SIZE || header.getInt(0) != MAGIC) {
+                throw new IOException("Not a WAL file: " + file);
+            }
+            int chunkSize = header.getInt(8);
+
+            long records = 0;
+            int position = HEADER_SIZE;
+            for (long chunkStart = 0; chunkStart < size; chunkStart += chunkSize, position = 0) {
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart,
+                        Math.min(chunkSize, size - chunkStart));
+                chunk.position(position);
+                CRC32 crc = new CRC32();
+                while (chunk.remaining() >= RECORD_HEADER_SIZE) {
+                    int length = chunk.getInt();
+                    if (length == 0) {
+                        return records;
+                    }
+                    if (length == PADDING) {
+                        break;
+                    }
+                    int checksum = chunk.getInt();
+                    if (length < 0 || length > chunk.remaining()) {
+                        log.warn("Torn record in {} at {}, ignoring the tail", file, chunkStart + chunk.position());
+                        return records;
+                    }
+                    ByteBuffer payload = chunk.slice(chunk.position(), length);
+                    chunk.position(chunk.position() + length);
+                    crc.reset();
+                    crc.update(payload.duplicate());
+                    if ((int) crc.getValue() != checksum) {
+                        log.warn("Checksum mismatch in {} at {}, ignoring the tail", file, chunkStart + chunk.position());
+                        return records;
+                    }
+                    JournalCodec.decode(payload, target);
+                    records++;
+                }
+            }
+            return records;
+        }
+    }
+}
@@ -1,31 +1,64 @@
 package com.edu.ulab.app.web;
 
+import com.edu.ulab.app.config.AsyncCreateProperties;
+import com.edu.ulab.app.exception.OutcomeUnknownException;
+import com.edu.ulab.app.facade.UserAsyncFacade;
 import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.facade.UserExportFacade;
+import com.edu.ulab.app.facade.UserImportFacade;
+import com.edu.ulab.app.facade.UserPurgeFacade;
 import com.edu.ulab.app.web.constant.WebConstant;
 import com.edu.ulab.app.web.request.UserBookRequest;
 import com.edu.ulab.app.web.response.UserBookResponse;
+import com.edu.ulab.app.web.response.UserPageResponse;
+import com.edu.ulab.app.web.response.UserPurgeResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.constraints.Pattern;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static com.edu.ulab.app.web.constant.WebConstant.REQUEST_ID_PATTERN;
 import static com.edu.ulab.app.web.constant.WebConstant.RQID;
 
 @Slf4j
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping(value = WebConstant.VERSION_URL + "/user",
         produces = MediaType.APPLICATION_JSON_VALUE)
 public class UserController {
     private final UserDataFacade userDataFacade;
+    private final UserPurgeFacade userPurgeFacade;
+    private final UserImportFacade userImportFacade;
+    private final UserExportFacade userExportFacade;
+    private final UserAsyncFacade userAsyncFacade;
+    private final long asyncCreateTimeoutMillis;
 
-    public UserController(UserDataFacade userDataFacade) {
+    public UserController(UserDataFacade userDataFacade,
+                          UserPurgeFacade userPurgeFacade,
+                          UserImportFacade userImportFacade,
+                          UserExportFacade userExportFacade,
+                          UserAsyncFacade userAsyncFacade,
+                          AsyncCreateProperties asyncCreateProperties) {
         this.userDataFacade = userDataFacade;
+        this.userPurgeFacade = userPurgeFacade;
+        this.userImportFacade = userImportFacade;
+        this.userExportFacade = userExportFacade;
+        this.userAsyncFacade = userAsyncFacade;
+        this.asyncCreateTimeoutMillis = asyncCreateProperties.getTimeout().toMillis();
     }
 
     @PostMapping(value = "/create")
@@ -37,27 +70,105 @@ public class UserController {
     public UserBookResponse createUserWithBooks(@RequestBody UserBookRequest request,
                                                 @RequestHeader(RQID) @Pattern(regexp = REQUEST_ID_PATTERN) final String requestId) {
         UserBookResponse response = userDataFacade.createUserWithBooks(request);
-        log.info("Response with created user and his books: {}", response);
+        log.debug("Response with created user and his books: {}", response);
         return response;
     }
 
+    /**
+     * То же создание, но поток сервлета освобождается сразу после постановки задачи в очередь пула
+     * {@code createExecutor}. Переполненная очередь — 503. Превышение {@code app.async-create.timeout} — 504:
+     * задача, ещё не взятая из очереди, отменяется, но уже начатая может сохранить пользователя.
+     */
+    @PostMapping(value = "/create/async")
+    @Operation(summary = "Create user book row on the bounded create executor.")
+    public DeferredResult<UserBookResponse> createUserWithBooksAsync(@RequestBody UserBookRequest request,
+                                                                     @RequestHeader(RQID) @Pattern(regexp = REQUEST_ID_PATTERN) final String requestId) {
+        DeferredResult<UserBookResponse> result = new DeferredResult<>(asyncCreateTimeoutMillis,
+                () -> new OutcomeUnknownException("User creation did not finish in " + asyncCreateTimeoutMillis
+                        + " ms, the user may still be created"));
+        CompletableFuture<UserBookResponse> creation = userAsyncFacade.createUserWithBooks(request);
+        result.onTimeout(() -> creation.cancel(false));
+        creation.whenComplete((response, exc) -> {
+            if (exc != null) {
+                result.setErrorResult(exc instanceof CompletionException && exc.getCause() != null
+                        ? exc.getCause()
+                        : exc);
+                return;
+            }
+            log.debug("Response with created user and his books: {}", response);
+            result.setResult(response);
+        });
+        return result;
+    }
+
+    /**
+     * Тело запроса читается потоком, а результаты по записям отдаются NDJSON по мере обработки пачек.
+     */
+    @PostMapping(value = "/import",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Import users with books from an NDJSON or JSON array stream.")
+    public StreamingResponseBody importUsersWithBooks(HttpServletRequest request) {
+        log.info("Import users and their books: {} bytes", request.getContentLengthLong());
+        return out -> userImportFacade.importUsersWithBooks(request.getInputStream(), out);
+    }
+
     @PutMapping(value = "/update")
     public UserBookResponse updateUserWithBooks(@RequestBody UserBookRequest request) {
         UserBookResponse response = userDataFacade.updateUserWithBooks(request);
-        log.info("Response with updated user and his books: {}", response);
+        log.debug("Response with updated user and his books: {}", response);
         return response;
     }
 
     @GetMapping(value = "/get/{userId}")
     public UserBookResponse updateUserWithBooks(@PathVariable Long userId) {
         UserBookResponse response = userDataFacade.getUserWithBooks(userId);
-        log.info("Response with user and his books: {}", response);
+        log.debug("Response with user and his books: {}", response);
         return response;
     }
 
+    @GetMapping
+    @Operation(summary = "Page of users ordered by id, starting after afterId.")
+    public UserPageResponse getUsers(@RequestParam(defaultValue = "0") long afterId,
+                                     @RequestParam(defaultValue = "100") int limit) {
+        return userDataFacade.getUsers(afterId, limit);
+    }
+
+    /**
+     * Выгрузка всех пользователей с книгами строками NDJSON по мере чтения из базы.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all users with their books as an NDJSON stream.")
+    public StreamingResponseBody exportUsersWithBooks() {
+        log.info("Export users and their books");
+        return userExportFacade::exportUsersWithBooks;
+    }
+
     @DeleteMapping(value = "/delete/{userId}")
     public void deleteUserWithBooks(@PathVariable Long userId) {
         log.info("Delete user and his books:  userId {}", userId);
         userDataFacade.deleteUserWithBooks(userId);
     }
+
+    /**
+     * Удаление ставится в очередь и сразу возвращается 202 со ссылкой на статус в {@code Location}.
+     */
+    @PostMapping(value = "/purge")
+    @Operation(summary = "Delete many users with their books in the background.")
+    public ResponseEntity<UserPurgeResponse> purgeUsersWithBooks(@RequestBody List<Long> userIds) {
+        log.info("Purge users and their books: {} users", userIds.size());
+        UserPurgeResponse response = userPurgeFacade.startPurge(userIds);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/{jobId}")
+                        .buildAndExpand(response.getJobId())
+                        .toUri())
+                .body(response);
+    }
+
+    @GetMapping(value = "/purge/{jobId}")
+    @Operation(summary = "Status of a background purge.")
+    public UserPurgeResponse getPurgeJob(@PathVariable String jobId) {
+        return userPurgeFacade.getPurgeJob(jobId);
+    }
 }
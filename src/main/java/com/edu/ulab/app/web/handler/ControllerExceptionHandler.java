@@ -1,9 +1,13 @@
 package com.edu.ulab.app.web.handler;
 
+import com.edu.ulab.app.exception.BadRequestException;
 import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.exception.OutcomeUnknownException;
 import com.edu.ulab.app.web.response.BaseWebResponse;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -21,6 +25,35 @@ public class ControllerExceptionHandler {
                 .body(new BaseWebResponse(createErrorMessage(exc)));
     }
 
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<BaseWebResponse> handleBadRequestException(@NonNull final BadRequestException exc) {
+        log.warn(exc.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new BaseWebResponse(createErrorMessage(exc)));
+    }
+
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<BaseWebResponse> handleTaskRejectedException(@NonNull final TaskRejectedException exc) {
+        log.warn(exc.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new BaseWebResponse(createErrorMessage(exc)));
+    }
+
+    @ExceptionHandler(OutcomeUnknownException.class)
+    public ResponseEntity<BaseWebResponse> handleOutcomeUnknownException(@NonNull final OutcomeUnknownException exc) {
+        log.warn(exc.getMessage());
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(new BaseWebResponse(createErrorMessage(exc)));
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<BaseWebResponse> handleOptimisticLockingFailureException(
+            @NonNull final OptimisticLockingFailureException exc) {
+        log.warn(exc.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new BaseWebResponse(createErrorMessage(exc)));
+    }
+
     private String createErrorMessage(Exception exception) {
         final String message = exception.getMessage();
         log.error(ExceptionHandlerUtils.buildErrorMessage(exception));
@@ -0,0 +1,23 @@
+package com.edu.ulab.app.web.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+/**
+ * Результат импорта одной записи: номер записи во входном потоке (с нуля) и либо идентификаторы
+ * созданных пользователя и книг, либо текст ошибки.
+ */
+@Data
+@Builder
+@Jacksonized
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportResult {
+    private long index;
+    private Long userId;
+    private List<Long> booksIdList;
+    private String error;
+}
@@ -0,0 +1,17 @@
+package com.edu.ulab.app.web.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Страница пользователей по возрастанию id. {@code nextAfterId} передаётся как {@code afterId}
+ * за следующей страницей и равен null на последней.
+ */
+@Data
+@Builder
+public class UserPageResponse {
+    private List<UserResponse> users;
+    private Long nextAfterId;
+}
@@ -0,0 +1,24 @@
+package com.edu.ulab.app.web.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Состояние фонового удаления пользователей. {@code deleted} заполняется после завершения,
+ * {@code error} — только при ошибке.
+ */
+@Data
+@Builder
+public class UserPurgeResponse {
+    private String jobId;
+    private Status status;
+    private int requested;
+    private Integer deleted;
+    private String error;
+
+    public enum Status {
+        RUNNING,
+        DONE,
+        FAILED
+    }
+}
@@ -0,0 +1,41 @@
+package com.edu.ulab.app.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Режим виртуальных потоков (Java 21, профиль сборки {@code java21}), включается {@code app.virtual-threads.enabled}.
+ * <p>
+ * Tomcat обрабатывает каждый запрос в новом виртуальном потоке, поэтому вызовы {@code UserDataFacade}
+ * и ожидание JDBC больше не занимают потоки платформы и не упираются в {@code server.tomcat.threads.max}.
+ * Тем же исполнителем обслуживаются {@code @Async} без указания пула и асинхронные ответы MVC
+ * ({@code StreamingResponseBody}, {@code CompletableFuture}). Число одновременных обращений к базе
+ * ограничивает {@link com.edu.ulab.app.backpressure.BackpressureConfig}; ограниченный пул массового удаления
+ * остаётся на потоках платформы.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        log.info("Tomcat requests run on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Primary
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
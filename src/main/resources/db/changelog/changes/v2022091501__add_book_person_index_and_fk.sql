@@ -0,0 +1,6 @@
+create index idx_ulab_edu_book_person_id_id on ulab_edu.book (person_id, id);
+
+alter table ulab_edu.book
+    add constraint fk_ulab_edu_book_person_id foreign key (person_id) references ulab_edu.person (id);
+
+comment on index ulab_edu.idx_ulab_edu_book_person_id_id is 'Книги пользователя по порядку id, покрывает выборку идентификаторов книг';
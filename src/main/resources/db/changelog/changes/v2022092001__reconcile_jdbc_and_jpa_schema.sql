@@ -0,0 +1 @@
+alter table ulab_edu.book alter column page_count type bigint;
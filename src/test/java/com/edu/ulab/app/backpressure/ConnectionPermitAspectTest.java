@@ -0,0 +1,64 @@
+package com.edu.ulab.app.backpressure;
+
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.service.impl.BookServiceImplStorage;
+import com.edu.ulab.app.storage.Storage;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование ограничения вызовов фасада {@link ConnectionPermitAspect}.
+ */
+@ActiveProfiles("test")
+@DisplayName("Testing facade backpressure.")
+public class ConnectionPermitAspectTest {
+
+    @Test
+    @DisplayName("Все разрешения заняты. Вызов должен дождаться таймаута и быть отклонён, а после освобождения пройти.")
+    void permitsExhausted_thenRejected() throws Exception {
+        //given
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        UserService userService = mock(UserService.class);
+        when(userService.getUserWithBooks(1L)).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return UserBookResponse.builder().userId(1L).booksIdList(List.of()).build();
+        });
+        when(userService.getUserWithBooks(2L))
+                .thenReturn(UserBookResponse.builder().userId(2L).booksIdList(List.of()).build());
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new UserDataFacade(userService,
+                new BookServiceImplStorage(new Storage(1)), new UserMapperImpl(), new BookMapperImpl()));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new ConnectionPermitAspect(1, Duration.ofMillis(50)));
+        UserDataFacade facade = proxyFactory.getProxy();
+
+        //when
+        CompletableFuture<UserBookResponse> holder = CompletableFuture.supplyAsync(() -> facade.getUserWithBooks(1L));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        //then
+        assertThatThrownBy(() -> facade.getUserWithBooks(2L)).isInstanceOf(TaskRejectedException.class);
+        release.countDown();
+        assertThat(holder.get(5, TimeUnit.SECONDS).getUserId()).isEqualTo(1L);
+        assertThat(facade.getUserWithBooks(2L).getUserId()).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,109 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.AppApplication;
+import com.edu.ulab.app.config.PersistenceBackend;
+import com.edu.ulab.app.config.PersistenceBackendConfig;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.impl.BookServiceImplStorage;
+import com.edu.ulab.app.service.impl.UserServiceImplStorage;
+import com.edu.ulab.app.storage.Storage;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * {@link UserDataFacade} над выбранным бэкендом.
+ * <p>
+ * Для {@code jpa} и {@code jdbc} поднимается контекст приложения без веб-сервера и кеша
+ * над PostgreSQL из Testcontainers, бэкенд выбирается свойством {@value PersistenceBackendConfig#BACKEND_PROPERTY}.
+ * Оба бэкенда работают с таблицами {@code ulab_edu}, которые создаёт Liquibase при старте контекста.
+ * Свойства передаются аргументами командной строки: свойства по умолчанию {@link SpringApplicationBuilder}
+ * проигрывают {@code application.yaml}. Свойства вызывающего заменяют одноимённые свойства фикстуры.
+ * {@code storage} собирается вручную, база ему не нужна, и {@code context} для него null.
+ */
+record BenchmarkFixture(UserDataFacade facade, ApplicationContext context, Runnable shutdown) {
+    private static final String IMAGE_VERSION = "postgres:13-alpine";
+
+    static BenchmarkFixture start(String backendName, String... properties) {
+        PersistenceBackend backend = PersistenceBackend.valueOf(backendName.toUpperCase());
+        if (backend == PersistenceBackend.STORAGE) {
+            Storage storage = new Storage(0);
+            UserDataFacade facade = new UserDataFacade(new UserServiceImplStorage(storage),
+                    new BookServiceImplStorage(storage), new UserMapperImpl(), new BookMapperImpl());
+            return new BenchmarkFixture(facade, null, () -> { });
+        }
+        return startContext(backend, WebApplicationType.NONE, properties);
+    }
+
+    /**
+     * Приложение с Tomcat на случайном порту, см. {@link #port()}. Контекст поднимается для любого бэкенда.
+     */
+    static BenchmarkFixture startServer(String backendName, String... properties) {
+        String[] serverProperties = Arrays.copyOf(properties, properties.length + 1);
+        serverProperties[properties.length] = "server.port=0";
+        return startContext(PersistenceBackend.valueOf(backendName.toUpperCase()), WebApplicationType.SERVLET,
+                serverProperties);
+    }
+
+    /**
+     * Неблокирующий вариант API на Netty, профиль {@code reactive}. {@link #facade()} остаётся блокирующим
+     * и годится для подготовки данных.
+     */
+    static BenchmarkFixture startReactiveServer(String backendName, String... properties) {
+        String[] serverProperties = Arrays.copyOf(properties, properties.length + 2);
+        serverProperties[properties.length] = "server.port=0";
+        serverProperties[properties.length + 1] = "spring.profiles.active=reactive";
+        return startContext(PersistenceBackend.valueOf(backendName.toUpperCase()), WebApplicationType.REACTIVE,
+                serverProperties);
+    }
+
+    int port() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    private static BenchmarkFixture startContext(PersistenceBackend backend,
+                                                 WebApplicationType webApplicationType,
+                                                 String... properties) {
+        PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+                DockerImageName.parse(IMAGE_VERSION).asCompatibleSubstituteFor("postgres"));
+        postgres.start();
+        Map<String, String> arguments = new LinkedHashMap<>();
+        Stream.concat(Stream.of(
+                                PersistenceBackendConfig.BACKEND_PROPERTY + "=" + backend.tagValue(),
+                                "spring.datasource.url=" + postgres.getJdbcUrl(),
+                                "spring.datasource.username=" + postgres.getUsername(),
+                                "spring.datasource.password=" + postgres.getPassword(),
+                                "spring.r2dbc.url=" + postgres.getJdbcUrl().replaceFirst("^jdbc:", "r2dbc:"),
+                                "spring.r2dbc.username=" + postgres.getUsername(),
+                                "spring.r2dbc.password=" + postgres.getPassword(),
+                                "spring.jpa.show-sql=false",
+                                "spring.jpa.properties.hibernate.generate_statistics=false",
+                                "app.cache.enabled=false",
+                                "logging.level.root=WARN"),
+                        Arrays.stream(properties))
+                .forEach(property -> {
+                    int separator = property.indexOf('=');
+                    arguments.put(property.substring(0, separator), property.substring(separator + 1));
+                });
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AppApplication.class)
+                .web(webApplicationType)
+                .run(arguments.entrySet()
+                        .stream()
+                        .map(argument -> "--" + argument.getKey() + "=" + argument.getValue())
+                        .toArray(String[]::new));
+        return new BenchmarkFixture(context.getBean(UserDataFacade.class), context, () -> {
+            context.close();
+            postgres.stop();
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Запросы бенчмарков. Номер запроса входит в имя и заголовок пользователя: заголовок уникален в базе,
+ * и строки разных пользователей различаются.
+ */
+final class BenchmarkRequests {
+
+    private BenchmarkRequests() {
+    }
+
+    /**
+     * Новый пользователь с {@code bookCount} новыми книгами.
+     */
+    static UserBookRequest userWithBooks(long number, int bookCount) {
+        List<BookRequest> bookRequests = new ArrayList<>(bookCount);
+        for (int i = 0; i < bookCount; i++) {
+            bookRequests.add(book(null, "book " + i, number, 100 + i));
+        }
+        return userWithBooks(null, number, bookRequests);
+    }
+
+    /**
+     * Пользователь с номером {@code number}; с {@code userId} — запрос на обновление существующего.
+     */
+    static UserBookRequest userWithBooks(Long userId, long number, List<BookRequest> bookRequests) {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setId(userId);
+        userRequest.setFullName("user " + number);
+        userRequest.setTitle("title " + number);
+        userRequest.setAge(30);
+
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(bookRequests);
+        return request;
+    }
+
+    static BookRequest book(Long id, String title, long authorNumber, long pageCount) {
+        BookRequest bookRequest = new BookRequest();
+        bookRequest.setId(id);
+        bookRequest.setTitle(title);
+        bookRequest.setAuthor("author " + authorNumber);
+        bookRequest.setPageCount(pageCount);
+        return bookRequest;
+    }
+}
@@ -0,0 +1,48 @@
+package com.edu.ulab.app.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+
+/**
+ * Запуск бенчмарков: {@code mvn -Pbenchmark test -DskipTests}.
+ * <p>
+ * Первый аргумент — регулярное выражение для отбора бенчмарков (по умолчанию все),
+ * системное свойство {@code benchmark.threads} — список числа потоков через запятую.
+ * Каждое число потоков прогоняется отдельным запуском, результаты пишутся в
+ * {@code target/jmh-result-<потоки>t.json}. Свойство {@code benchmark.profilers} — профилировщики JMH
+ * через запятую, например {@code gc} для скорости выделения памяти.
+ */
+public class BenchmarkRunner {
+    private static final String LOGBACK_CONFIG = "-Dlogback.configurationFile=benchmark/logback-benchmark.xml";
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ".*Benchmark";
+        int[] threadCounts = Arrays.stream(System.getProperty("benchmark.threads", "1").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        String[] profilers = Arrays.stream(System.getProperty("benchmark.profilers", "").split(","))
+                .map(String::trim)
+                .filter(profiler -> !profiler.isEmpty())
+                .toArray(String[]::new);
+
+        for (int threads : threadCounts) {
+            ChainedOptionsBuilder builder = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .jvmArgsAppend(LOGBACK_CONFIG)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("target/jmh-result-" + threads + "t.json");
+            for (String profiler : profilers) {
+                builder.addProfiler(profiler);
+            }
+            new Runner(builder.build()).run();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Горячие пути {@link UserDataFacade}: создание пользователя с книгами и чтение пользователя с идентификаторами книг.
+ * <p>
+ * Число потоков задаётся не параметром, а запуском: см. {@link BenchmarkRunner}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FacadeBenchmark {
+    private static final int PRELOADED_USERS = 1_000;
+
+    @State(Scope.Benchmark)
+    public static class Backend {
+        @Param({"jpa", "jdbc", "storage"})
+        public String backend;
+
+        @Param({"1", "10", "100"})
+        public int booksPerUser;
+
+        UserDataFacade facade;
+        long[] userIds;
+        private final AtomicLong sequence = new AtomicLong();
+        private BenchmarkFixture fixture;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            fixture = BenchmarkFixture.start(backend);
+            facade = fixture.facade();
+            userIds = new long[PRELOADED_USERS];
+            for (int i = 0; i < userIds.length; i++) {
+                userIds[i] = facade.createUserWithBooks(nextRequest()).getUserId();
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            fixture.shutdown().run();
+        }
+
+        UserBookRequest nextRequest() {
+            return BenchmarkRequests.userWithBooks(sequence.incrementAndGet(), booksPerUser);
+        }
+
+        long randomUserId() {
+            return userIds[ThreadLocalRandom.current().nextInt(userIds.length)];
+        }
+    }
+
+    @Benchmark
+    public UserBookResponse createUserWithBooks(Backend state) {
+        return state.facade.createUserWithBooks(state.nextRequest());
+    }
+
+    @Benchmark
+    public UserBookResponse getUserWithBooks(Backend state) {
+        return state.facade.getUserWithBooks(state.randomUserId());
+    }
+}
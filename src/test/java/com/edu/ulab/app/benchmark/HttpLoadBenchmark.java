@@ -0,0 +1,114 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.web.constant.WebConstant;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузка на приложение по HTTP: чтение пользователя с книгами через Tomcat в режимах {@code platform}
+ * (пул потоков Tomcat до {@value #TOMCAT_MAX_THREADS}) и {@code virtual} (виртуальный поток на запрос
+ * и ограничение вызовов фасада размером пула соединений) и через WebFlux на Netty с R2DBC в режиме
+ * {@code reactive} (профиль {@code reactive}, потоки event loop по числу ядер).
+ * <p>
+ * Каждый поток JMH — один клиент, который ждёт ответа перед следующим запросом, так что число потоков
+ * запуска и есть конкурентность: {@code mvn -Pbenchmark,java21 test -DskipTests
+ * -Dbenchmark.include=HttpLoadBenchmark -Dbenchmark.threads=64,256,1024}. Режим {@code virtual} требует
+ * сборки с профилем {@code java21}; без него приложение с {@code app.virtual-threads.enabled=true} не стартует
+ * и прогон этого режима завершается ошибкой.
+ * Mode.SampleTime даёт перцентили задержки, Mode.Throughput — запросы в миллисекунду, счётчик {@code rejected} —
+ * ответы 503 от ограничения вызовов.
+ * После прогона в лог пишется пиковое число живых потоков JVM: клиентских потоков JMH столько же
+ * при любом режиме, так что разница между режимами — потоки сервера.
+ */
+@Slf4j
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class HttpLoadBenchmark {
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int PRELOADED_USERS = 1_000;
+    private static final int BOOKS_PER_USER = 10;
+
+    @State(Scope.Benchmark)
+    public static class Server {
+        @Param({"platform", "virtual", "reactive"})
+        public String threads;
+
+        @Param({"jdbc"})
+        public String backend;
+
+        HttpClient client;
+        URI[] userUris;
+        private BenchmarkFixture fixture;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            fixture = "reactive".equals(threads)
+                    ? BenchmarkFixture.startReactiveServer(backend)
+                    : BenchmarkFixture.startServer(backend,
+                    "app.virtual-threads.enabled=" + "virtual".equals(threads),
+                    "server.tomcat.threads.max=" + TOMCAT_MAX_THREADS);
+            String baseUrl = "http://localhost:" + fixture.port() + "/app" + WebConstant.VERSION_URL + "/user/get/";
+            userUris = new URI[PRELOADED_USERS];
+            for (int i = 0; i < PRELOADED_USERS; i++) {
+                long userId = fixture.facade().createUserWithBooks(BenchmarkRequests.userWithBooks(i, BOOKS_PER_USER))
+                        .getUserId();
+                userUris[i] = URI.create(baseUrl + userId);
+            }
+            client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .build();
+            ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            log.info("Peak live threads ({}): {}", threads, ManagementFactory.getThreadMXBean().getPeakThreadCount());
+            fixture.shutdown().run();
+        }
+
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcome {
+        public long rejected;
+    }
+
+    @Benchmark
+    public int getUserWithBooks(Server server, Outcome outcome) throws IOException, InterruptedException {
+        URI uri = server.userUris[ThreadLocalRandom.current().nextInt(server.userUris.length)];
+        HttpResponse<byte[]> response = server.client.send(HttpRequest.newBuilder(uri).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() == 503) {
+            outcome.rejected++;
+        } else if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + uri + " returned " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
@@ -0,0 +1,101 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JPA сервисы с настройками {@code application.yaml} ({@code default}) и профиля {@code prod}:
+ * пакетные insert/update Hibernate, упорядочивание операторов, без статистики, диалект PostgreSQL 10.
+ * <p>
+ * Вывод SQL в обоих вариантах выключен фикстурой: печать каждого оператора в консоль мерила бы консоль.
+ * Создание пишет пользователя и все его книги, обновление меняет заголовки всех книг пользователя.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class JpaBatchingBenchmark {
+    private static final int PRELOADED_USERS = 1_000;
+
+    @State(Scope.Benchmark)
+    public static class Jpa {
+        @Param({"default", "prod"})
+        public String profile;
+
+        @Param({"10", "100"})
+        public int booksPerUser;
+
+        UserDataFacade facade;
+        List<UserBookResponse> users;
+        private final AtomicLong sequence = new AtomicLong();
+        private BenchmarkFixture fixture;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            fixture = "prod".equals(profile)
+                    ? BenchmarkFixture.start("jpa", "spring.profiles.active=prod")
+                    : BenchmarkFixture.start("jpa");
+            facade = fixture.facade();
+            users = new ArrayList<>(PRELOADED_USERS);
+            for (int i = 0; i < PRELOADED_USERS; i++) {
+                users.add(facade.createUserWithBooks(newUserRequest()));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            fixture.shutdown().run();
+        }
+
+        UserBookRequest newUserRequest() {
+            return BenchmarkRequests.userWithBooks(sequence.incrementAndGet(), booksPerUser);
+        }
+
+        /**
+         * Тот же пользователь с новыми заголовками всех книг. Предзагруженный пользователь с индексом {@code i}
+         * создан с номером {@code i + 1}, с ним же он и обновляется, чтобы его заголовок не совпал с чужим.
+         */
+        UserBookRequest renameBooksRequest() {
+            int index = ThreadLocalRandom.current().nextInt(users.size());
+            UserBookResponse user = users.get(index);
+            long number = sequence.incrementAndGet();
+            List<BookRequest> bookRequests = new ArrayList<>(user.getBooksIdList().size());
+            for (Long bookId : user.getBooksIdList()) {
+                bookRequests.add(BenchmarkRequests.book(bookId, "book " + number, user.getUserId(), 100));
+            }
+            return BenchmarkRequests.userWithBooks(user.getUserId(), index + 1, bookRequests);
+        }
+    }
+
+    @Benchmark
+    public UserBookResponse createUserWithBooks(Jpa state) {
+        return state.facade.createUserWithBooks(state.newUserRequest());
+    }
+
+    @Benchmark
+    public UserBookResponse updateUserWithBooks(Jpa state) {
+        return state.facade.updateUserWithBooks(state.renameBooksRequest());
+    }
+}
@@ -0,0 +1,164 @@
+package com.edu.ulab.app.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Цена логирования на горячем пути: создание пользователя с книгами через {@link UserDataFacade}
+ * над {@code storage}, чтобы база не заслоняла логирование.
+ * <p>
+ * Уровень {@code INFO} — итоговые строки с числом книг и идентификатором пользователя, {@code DEBUG} —
+ * ещё и полные запросы и списки идентификаторов. {@code BASELINE} — текущий INFO плюс строки, которые
+ * прежний {@code UserDataFacade} писал на INFO: запрос целиком, DTO пользователя до и после сохранения
+ * и по две строки с DTO на каждую книгу; это точка отсчёта для сравнения. Вывод {@code sync}
+ * форматирует событие в потоке запроса, {@code async} — через {@link AsyncAppender}, как в профиле
+ * {@code async-logging} из {@code logback-spring.xml}; при переполнении очереди события отбрасываются. Текст пишется
+ * в пустой поток, чтобы мерить форматирование, а не консоль. Скорость выделения памяти даёт профилировщик gc:
+ * {@code mvn -Pbenchmark test -DskipTests -Dbenchmark.include=LoggingBenchmark -Dbenchmark.profilers=gc},
+ * см. {@code gc.alloc.rate.norm} — байт на операцию.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LoggingBenchmark {
+    private static final String APP_LOGGER = "com.edu.ulab.app";
+    private static final String PATTERN = "%d %5p [%X{requestId:-}] [%thread] %logger{39} : %m%n";
+    /**
+     * Логгер прежних строк — логгер фасада, чтобы совпадали уровень, имя в шаблоне и appender.
+     */
+    private static final org.slf4j.Logger BASELINE_LOG = LoggerFactory.getLogger(UserDataFacade.class);
+
+    @State(Scope.Benchmark)
+    public static class Logging {
+        @Param({"INFO", "DEBUG", "BASELINE"})
+        public String level;
+
+        @Param({"sync", "async"})
+        public String output;
+
+        @Param({"10", "500"})
+        public int booksPerUser;
+
+        UserDataFacade facade;
+        boolean baseline;
+        private final AtomicLong sequence = new AtomicLong();
+        private final UserMapper userMapper = new UserMapperImpl();
+        private final BookMapper bookMapper = new BookMapperImpl();
+        private BenchmarkFixture fixture;
+        private Appender<ILoggingEvent> appender;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            fixture = BenchmarkFixture.start("storage");
+            facade = fixture.facade();
+            baseline = "BASELINE".equals(level);
+
+            LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+            PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+            encoder.setContext(context);
+            encoder.setPattern(PATTERN);
+            encoder.start();
+            OutputStreamAppender<ILoggingEvent> nullAppender = new OutputStreamAppender<>();
+            nullAppender.setContext(context);
+            nullAppender.setEncoder(encoder);
+            nullAppender.setOutputStream(OutputStream.nullOutputStream());
+            nullAppender.start();
+            appender = nullAppender;
+            if ("async".equals(output)) {
+                AsyncAppender asyncAppender = new AsyncAppender();
+                asyncAppender.setContext(context);
+                asyncAppender.setQueueSize(8192);
+                asyncAppender.setNeverBlock(true);
+                asyncAppender.addAppender(nullAppender);
+                asyncAppender.start();
+                appender = asyncAppender;
+            }
+
+            Logger logger = context.getLogger(APP_LOGGER);
+            logger.setLevel(baseline ? ch.qos.logback.classic.Level.INFO : ch.qos.logback.classic.Level.toLevel(level));
+            logger.setAdditive(false);
+            logger.addAppender(appender);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            Logger logger = ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger(APP_LOGGER);
+            logger.detachAppender(appender);
+            logger.setAdditive(true);
+            logger.setLevel(null);
+            appender.stop();
+            fixture.shutdown().run();
+        }
+
+        UserBookRequest nextRequest() {
+            return BenchmarkRequests.userWithBooks(sequence.incrementAndGet(), booksPerUser);
+        }
+
+        /**
+         * Строки прежнего {@code createUserWithBooks} с теми же сообщениями и аргументами. DTO собираются
+         * заново, как их собирал прежний код, а идентификаторы берутся из ответа.
+         */
+        void logBaseline(UserBookRequest request, UserBookResponse response) {
+            BASELINE_LOG.info("Got user book create request: {}", request);
+            UserDto userDto = userMapper.userRequestToUserDto(request.getUserRequest());
+            BASELINE_LOG.info("Mapped user request: {}", userDto);
+            userDto.setId(response.getUserId());
+            BASELINE_LOG.info("Created user: {}", userDto);
+            List<BookRequest> bookRequests = request.getBookRequests();
+            for (int i = 0; i < bookRequests.size(); i++) {
+                BookDto bookDto = bookMapper.bookRequestToBookDto(bookRequests.get(i));
+                bookDto.setUserId(response.getUserId());
+                BASELINE_LOG.info("mapped book: {}", bookDto);
+                bookDto.setId(response.getBooksIdList().get(i));
+                BASELINE_LOG.info("Created book: {}", bookDto);
+            }
+            BASELINE_LOG.info("Collected book ids: {}", response.getBooksIdList());
+        }
+    }
+
+    @Benchmark
+    public UserBookResponse createUserWithBooks(Logging logging) {
+        UserBookRequest request = logging.nextRequest();
+        UserBookResponse response = logging.facade.createUserWithBooks(request);
+        if (logging.baseline) {
+            logging.logBaseline(request, response);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,101 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.storage.Storage;
+import com.edu.ulab.app.storage.StorageJournal;
+import com.edu.ulab.app.storage.UserRecord;
+import com.edu.ulab.app.storage.persistence.WriteAheadLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Цена журнала для записи в {@link Storage}: обновление случайного пользователя без долговечности ({@code off})
+ * и с {@link WriteAheadLog} ({@code wal}). Записи в разные сегменты хранилища идут параллельно, а в журнал —
+ * через один монитор, поэтому разницу показывают запуски с несколькими потоками:
+ * {@code mvn -Pbenchmark test -DskipTests -Dbenchmark.include=StorageJournalBenchmark -Dbenchmark.threads=1,8}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class StorageJournalBenchmark {
+    private static final int USERS = 10_000;
+    private static final int WAL_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    @State(Scope.Benchmark)
+    public static class Journaled {
+        @Param({"off", "wal"})
+        public String persistence;
+
+        Storage storage;
+        long[] userIds;
+        private Path directory;
+        private WriteAheadLog wal;
+        private long generation;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            storage = new Storage(0);
+            userIds = new long[USERS];
+            for (int i = 0; i < USERS; i++) {
+                userIds[i] = storage.createUser(new UserRecord(0, "user " + i, "title " + i, 30)).id();
+            }
+            if ("wal".equals(persistence)) {
+                directory = Files.createTempDirectory("storage-journal-benchmark");
+            }
+        }
+
+        /**
+         * Журнал растёт на сотни мегабайт в секунду, поэтому каждая итерация пишет в новый файл,
+         * а файл прошлой итерации удаляется.
+         */
+        @Setup(Level.Iteration)
+        public void openWal() throws IOException {
+            if (directory != null) {
+                wal = WriteAheadLog.create(directory.resolve("wal-" + (++generation) + ".log"), WAL_CHUNK_SIZE);
+                storage.attachJournal(wal);
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void closeWal() throws IOException {
+            if (wal != null) {
+                storage.attachJournal(StorageJournal.NOOP);
+                wal.close();
+                Files.delete(directory.resolve("wal-" + generation + ".log"));
+                wal = null;
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            if (directory != null) {
+                Files.delete(directory);
+            }
+        }
+    }
+
+    @Benchmark
+    public UserRecord updateUser(Journaled state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = state.userIds[random.nextInt(USERS)];
+        return state.storage.updateUser(new UserRecord(id, "updated " + id, "title " + id, random.nextInt(100)));
+    }
+}
@@ -0,0 +1,130 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.config.PersistenceBackendConfig;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionOperations;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.LockModeType;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Конкурентное обновление небольшого числа «горячих» пользователей в JPA-бэкенде:
+ * {@code optimistic} — {@code UserService.updateUser} с проверкой версии и повтором при конфликте,
+ * {@code pessimistic} — прежний путь через {@code select ... for update} в той же транзакции.
+ * <p>
+ * Счётчик {@code conflicts} — обновления, не прошедшие за все попытки. Число потоков задаётся запуском,
+ * см. {@link BenchmarkRunner}; конкуренция заметна начиная с нескольких потоков на одного пользователя.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UpdateContentionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class HotUsers {
+        @Param({"optimistic", "pessimistic"})
+        public String locking;
+
+        @Param({"1", "16"})
+        public int hotUsers;
+
+        UserService userService;
+        EntityManager entityManager;
+        TransactionOperations transactionOperations;
+        long[] userIds;
+        private final AtomicLong sequence = new AtomicLong();
+        private BenchmarkFixture fixture;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            fixture = BenchmarkFixture.start("jpa");
+            userService = fixture.context().getBean(PersistenceBackendConfig.FACADE_USER_SERVICE, UserService.class);
+            entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                    fixture.context().getBean(EntityManagerFactory.class));
+            transactionOperations = fixture.context().getBean(TransactionOperations.class);
+            userIds = new long[hotUsers];
+            for (int i = 0; i < hotUsers; i++) {
+                UserRequest userRequest = new UserRequest();
+                userRequest.setFullName("hot user " + i);
+                userRequest.setTitle("hot title " + i);
+                userRequest.setAge(30);
+                UserBookRequest request = new UserBookRequest();
+                request.setUserRequest(userRequest);
+                request.setBookRequests(List.of());
+                userIds[i] = fixture.facade().createUserWithBooks(request).getUserId();
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            fixture.shutdown().run();
+        }
+
+        /**
+         * Обновление, которое точно меняет строку: имя каждый раз новое.
+         */
+        UserDto nextUpdate() {
+            int index = ThreadLocalRandom.current().nextInt(userIds.length);
+            UserDto userDto = new UserDto();
+            userDto.setId(userIds[index]);
+            userDto.setFullName("hot user " + sequence.incrementAndGet());
+            userDto.setTitle("hot title " + index);
+            userDto.setAge(30);
+            return userDto;
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcome {
+        public long conflicts;
+    }
+
+    @Benchmark
+    public Object updateUser(HotUsers state, Outcome outcome) {
+        UserDto userDto = state.nextUpdate();
+        if ("pessimistic".equals(state.locking)) {
+            return state.transactionOperations.execute(status -> {
+                Person person = state.entityManager.find(Person.class, Math.toIntExact(userDto.getId()),
+                        LockModeType.PESSIMISTIC_WRITE);
+                person.setFullName(userDto.getFullName());
+                person.setTitle(userDto.getTitle());
+                person.setAge(userDto.getAge());
+                return person.getId();
+            });
+        }
+        try {
+            return state.userService.updateUser(userDto);
+        } catch (OptimisticLockingFailureException e) {
+            outcome.conflicts++;
+            return e;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.edu.ulab.app.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.FilteredClassLoader;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование пулов {@link AsyncConfig}. {@code VirtualThreadConfig} скрыт от контекста, как в сборке
+ * без профиля {@code java21}.
+ */
+@DisplayName("Testing async executors configuration.")
+public class AsyncConfigTest {
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(TaskExecutionAutoConfiguration.class))
+            .withUserConfiguration(AsyncConfig.class)
+            .withClassLoader(new FilteredClassLoader("com.edu.ulab.app.config.VirtualThreadConfig"));
+
+    @Test
+    @DisplayName("Без виртуальных потоков. Должен создать пул по умолчанию и ограниченные пулы.")
+    void platformThreads_createsExecutors() {
+        contextRunner.run(context -> assertThat(context)
+                .hasNotFailed()
+                .hasBean("applicationTaskExecutor")
+                .hasBean(AsyncConfig.PURGE_EXECUTOR)
+                .hasBean(AsyncConfig.CREATE_EXECUTOR));
+    }
+
+    @Test
+    @DisplayName("Виртуальные потоки без сборки java21. Старт должен прерваться.")
+    void virtualThreadsWithoutJava21_fails() {
+        contextRunner.withPropertyValues("app.virtual-threads.enabled=true")
+                .run(context -> assertThat(context)
+                        .hasFailed()
+                        .getFailure()
+                        .hasRootCauseMessage("app.virtual-threads.enabled=true requires a build with the java21 Maven profile"));
+    }
+}
@@ -0,0 +1,208 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.dto.UserBooksDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.junit.jupiter.api.DisplayName;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.cache.CacheMetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование кэшей {@link CacheConfig} поверх {@link UserService}.
+ */
+@ActiveProfiles("test")
+@SpringJUnitConfig(CacheConfigTest.Config.class)
+@DisplayName("Testing user caches.")
+public class CacheConfigTest {
+    private static final UserService DELEGATE = mock(UserService.class);
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Test
+    @DisplayName("Повторное чтение книг пользователя берётся из кэша, удаление пользователя сбрасывает кэш.")
+    void getUserWithBooks_isCachedUntilDelete() {
+        //given
+        UserBookResponse response = UserBookResponse.builder()
+                .userId(1L)
+                .booksIdList(List.of(2L, 3L))
+                .build();
+        when(DELEGATE.getUserWithBooks(1L)).thenReturn(response);
+
+        //when
+        userService.getUserWithBooks(1L);
+        userService.getUserWithBooks(1L);
+        userService.deleteUserById(1L);
+        userService.getUserWithBooks(1L);
+
+        //then
+        verify(DELEGATE, times(2)).getUserWithBooks(1L);
+        assertThat(cacheManager.getCache(CacheNames.USER_BOOKS).get(1L)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Изменение полученных из кэша объектов не должно менять закэшированные значения.")
+    void cachedValues_areCopied() {
+        //given
+        UserDto userDto = new UserDto();
+        userDto.setId(5L);
+        userDto.setFullName("cached");
+        when(DELEGATE.getUserById(5L)).thenReturn(userDto);
+        when(DELEGATE.getUserWithBooks(5L)).thenReturn(UserBookResponse.builder()
+                .userId(5L)
+                .booksIdList(new ArrayList<>(List.of(6L, 7L)))
+                .build());
+
+        //when
+        userService.getUserById(5L).setFullName("changed");
+        userDto.setFullName("changed by loader");
+        userService.getUserWithBooks(5L).getBooksIdList().clear();
+
+        //then
+        assertThat(userService.getUserById(5L).getFullName()).isEqualTo("cached");
+        assertThat(userService.getUserWithBooks(5L).getBooksIdList()).containsExactly(6L, 7L);
+        verify(DELEGATE, times(1)).getUserById(5L);
+        verify(DELEGATE, times(1)).getUserWithBooks(5L);
+    }
+
+    @Test
+    @DisplayName("Чтение мимо кэша через прокси. Должно вернуть значение из сервиса, а не закэшированное.")
+    void getUserByIdUncached_bypassesCache() {
+        //given
+        UserDto cached = new UserDto();
+        cached.setId(9L);
+        cached.setFullName("cached");
+        UserDto current = new UserDto();
+        current.setId(9L);
+        current.setFullName("current");
+        when(DELEGATE.getUserById(9L)).thenReturn(cached, current);
+        userService.getUserById(9L);
+
+        //when
+        UserDto result = userService.getUserByIdUncached(9L);
+
+        //then
+        assertThat(result.getFullName()).isEqualTo("current");
+        assertThat(userService.getUserById(9L).getFullName()).isEqualTo("cached");
+    }
+
+    @Test
+    @DisplayName("Кэши регистрируют метрики попаданий и промахов.")
+    void caches_areBoundToMetrics() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(MetricsAutoConfiguration.class,
+                        CompositeMeterRegistryAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class,
+                        CacheMetricsAutoConfiguration.class))
+                .withUserConfiguration(CacheConfig.class)
+                .run(context -> {
+                    //given
+                    Cache cache = context.getBean(CacheManager.class).getCache(CacheNames.USERS);
+                    UserDto userDto = new UserDto();
+                    userDto.setId(8L);
+
+                    //when
+                    cache.get(8L);
+                    cache.put(8L, userDto);
+                    cache.get(8L);
+
+                    //then
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+                    assertThat(registry.get("cache.gets").tags("cache", CacheNames.USERS, "result", "hit")
+                            .functionCounter().count()).isEqualTo(1);
+                    assertThat(registry.get("cache.gets").tags("cache", CacheNames.USERS, "result", "miss")
+                            .functionCounter().count()).isEqualTo(1);
+                    assertThat(registry.find("cache.gets").tags("cache", CacheNames.USER_BOOKS).functionCounters())
+                            .isNotEmpty();
+                });
+    }
+
+    @Configuration
+    @Import(CacheConfig.class)
+    static class Config {
+        @Bean
+        UserService userService() {
+            return new DelegatingUserService(DELEGATE);
+        }
+    }
+
+    static class DelegatingUserService implements UserService {
+        private final UserService delegate;
+
+        DelegatingUserService(UserService delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public UserDto createUser(UserDto userDto) {
+            return delegate.createUser(userDto);
+        }
+
+        @Override
+        public List<UserDto> createUsers(List<UserDto> userDtos) {
+            return delegate.createUsers(userDtos);
+        }
+
+        @Override
+        public UserDto updateUser(UserDto userDto) {
+            return delegate.updateUser(userDto);
+        }
+
+        @Override
+        public UserDto getUserById(Long id) {
+            return delegate.getUserById(id);
+        }
+
+        @Override
+        public UserBookResponse getUserWithBooks(Long id) {
+            return delegate.getUserWithBooks(id);
+        }
+
+        @Override
+        public void deleteUserById(Long id) {
+            delegate.deleteUserById(id);
+        }
+
+        @Override
+        public int deleteUsersByIds(List<Long> ids) {
+            return delegate.deleteUsersByIds(ids);
+        }
+
+        @Override
+        public List<UserDto> getUsersAfter(long afterId, int limit) {
+            return delegate.getUsersAfter(afterId, limit);
+        }
+
+        @Override
+        public void exportUsersWithBooks(Consumer<UserBooksDto> consumer) {
+            delegate.exportUsersWithBooks(consumer);
+        }
+    }
+}
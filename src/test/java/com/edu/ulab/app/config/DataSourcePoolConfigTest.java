@@ -0,0 +1,52 @@
+package com.edu.ulab.app.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование настройки пула {@link DataSourcePoolConfig}. Пул не открывает соединений до первого запроса,
+ * поэтому база для теста не нужна.
+ */
+@ActiveProfiles("test")
+@DisplayName("Testing connection pool configuration.")
+public class DataSourcePoolConfigTest {
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(DataSourcePoolConfig.class, Config.class)
+            .withPropertyValues("spring.datasource.url=jdbc:postgresql://localhost:5432/test");
+
+    @Test
+    @DisplayName("Без настройки размер пула считается от числа ядер.")
+    void defaultPoolSize_isDerivedFromCores() {
+        assertThat(DataSourcePoolConfig.poolSize(0, 4)).isEqualTo(9);
+        contextRunner.run(context -> assertThat(context.getBean(HikariDataSource.class).getMaximumPoolSize())
+                .isEqualTo(Runtime.getRuntime().availableProcessors() * 2 + 1));
+    }
+
+    @Test
+    @DisplayName("Размер пула и параметры Hikari из настроек применяются к пулу.")
+    void configuredPool_isApplied() {
+        contextRunner.withPropertyValues(
+                        "app.datasource.pool-size=4",
+                        "spring.datasource.hikari.leak-detection-threshold=2000",
+                        "spring.datasource.hikari.data-source-properties.reWriteBatchedInserts=true")
+                .run(context -> {
+                    HikariDataSource dataSource = context.getBean(HikariDataSource.class);
+                    assertThat(dataSource.getMaximumPoolSize()).isEqualTo(4);
+                    assertThat(dataSource.getLeakDetectionThreshold()).isEqualTo(2000);
+                    assertThat(dataSource.getDataSourceProperties()).containsEntry("reWriteBatchedInserts", "true");
+                });
+    }
+
+    @Configuration
+    @EnableConfigurationProperties(DataSourceProperties.class)
+    static class Config {
+    }
+}
@@ -0,0 +1,104 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.metrics.BackendTimingAspect;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.service.impl.BookServiceImplStorage;
+import com.edu.ulab.app.service.impl.UserServiceImplStorage;
+import com.edu.ulab.app.storage.Storage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Тестирование выбора бэкенда {@link PersistenceBackendConfig} и таймеров {@link BackendTimingAspect}.
+ */
+@ActiveProfiles("test")
+@DisplayName("Testing persistence backend selection.")
+public class PersistenceBackendConfigTest {
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(AopAutoConfiguration.class))
+            .withUserConfiguration(PersistenceBackendConfig.class, Config.class);
+
+    @Test
+    @DisplayName("Без настройки фасад получает сервисы на JdbcTemplate.")
+    void defaultBackend_isJdbc() {
+        contextRunner.run(context -> {
+            assertThat(context.getBean(PersistenceBackendConfig.FACADE_USER_SERVICE))
+                    .isSameAs(context.getBean("userServiceImplTemplate"));
+            assertThat(context.getBean(PersistenceBackendConfig.FACADE_BOOK_SERVICE))
+                    .isSameAs(context.getBean("bookServiceImplTemplate"));
+        });
+    }
+
+    @Test
+    @DisplayName("Бэкенд из настройки получает псевдонимы фасада и пишет таймеры со своим тегом.")
+    void configuredBackend_isAliasedAndTimed() {
+        contextRunner.withPropertyValues(PersistenceBackendConfig.BACKEND_PROPERTY + "=storage")
+                .run(context -> {
+                    //given
+                    UserService userService = context.getBean(PersistenceBackendConfig.FACADE_USER_SERVICE,
+                            UserService.class);
+                    UserDto userDto = new UserDto();
+                    userDto.setFullName("test name");
+
+                    //when
+                    userService.createUser(userDto);
+
+                    //then
+                    assertThat(userService).isSameAs(context.getBean("userServiceImplStorage"));
+                    assertThat(context.getBean(MeterRegistry.class).get(BackendTimingAspect.TIMER_NAME)
+                            .tag("backend", "storage")
+                            .tag("operation", "createUser")
+                            .timer()
+                            .count())
+                            .isEqualTo(1);
+                });
+    }
+
+    @Configuration
+    static class Config {
+        private final Storage storage = new Storage(1);
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        BackendTimingAspect backendTimingAspect(MeterRegistry meterRegistry) {
+            return new BackendTimingAspect(meterRegistry);
+        }
+
+        @Bean
+        UserService userServiceImplTemplate() {
+            return mock(UserService.class);
+        }
+
+        @Bean
+        BookService bookServiceImplTemplate() {
+            return mock(BookService.class);
+        }
+
+        @Bean
+        UserService userServiceImplStorage() {
+            return new UserServiceImplStorage(storage);
+        }
+
+        @Bean
+        BookService bookServiceImplStorage() {
+            return new BookServiceImplStorage(storage);
+        }
+    }
+}
@@ -1,12 +1,12 @@
 package com.edu.ulab.app.config;
 
+import com.zaxxer.hikari.HikariDataSource;
 import net.ttddyy.dsproxy.listener.ChainListener;
 import net.ttddyy.dsproxy.listener.DataSourceQueryCountListener;
 import net.ttddyy.dsproxy.listener.logging.SLF4JQueryLoggingListener;
 import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
@@ -22,6 +22,7 @@ public class PostgreSqlContainerConfig {
     private static final String USERNAME = "postgres";
     private static final String PASSWORD = "mysecretpassword";
     private static final String POSTGRESQL_DRIVER_CLASS_NAME = "org.postgresql.Driver";
+    private static final String POOL_NAME = "test-pool";
     private static final String JDBC_URL_FORMAT = "jdbc:postgresql://%s:%s/%s";
 
     private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
@@ -41,11 +42,18 @@ public class PostgreSqlContainerConfig {
                 POSTGRES.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT),
                 POSTGRES.getDatabaseName());
 
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        // тот же пул и те же свойства драйвера, что в application.yaml, чтобы тесты и бенчмарки видели
+        // поведение продового пула, а не новое физическое соединение на каждый запрос
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(POOL_NAME);
         dataSource.setDriverClassName(POSTGRESQL_DRIVER_CLASS_NAME);
-        dataSource.setUrl(connectionUrl);
+        dataSource.setJdbcUrl(connectionUrl);
         dataSource.setUsername(POSTGRES.getUsername());
         dataSource.setPassword(POSTGRES.getPassword());
+        dataSource.setMaximumPoolSize(DataSourcePoolConfig.poolSize(0, Runtime.getRuntime().availableProcessors()));
+        dataSource.setLeakDetectionThreshold(30_000);
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", true);
+        dataSource.addDataSourceProperty("prepareThreshold", 2);
 
         return proxyListenerDataSource(dataSource);
     }
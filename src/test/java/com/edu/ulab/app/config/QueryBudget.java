@@ -0,0 +1,19 @@
+package com.edu.ulab.app.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Допустимое число обращений к базе для вызова, измеренного через {@link QueryBudgetExtension#measure}.
+ * Пакетный statement считается одним обращением, сколько бы строк в нём ни было.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    /**
+     * Наибольшее число statement за вызов.
+     */
+    int value();
+}
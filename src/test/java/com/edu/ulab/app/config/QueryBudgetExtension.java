@@ -0,0 +1,62 @@
+package com.edu.ulab.app.config;
+
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.function.Supplier;
+
+/**
+ * Проверка числа обращений к базе на вызов фасада или сервиса.
+ * <p>
+ * Регистрируется полем с {@code @RegisterExtension}; бюджет берётся из {@link QueryBudget} на тестовом методе.
+ * {@link #measure} сбрасывает счётчики {@link QueryCountHolder}, выполняет вызов и сравнивает число
+ * statement с бюджетом. Считаются только statement прокси {@link PostgreSqlContainerConfig}, выполненные
+ * в потоке теста, поэтому подготовку данных достаточно вынести за {@link #measure}. Метод с бюджетом,
+ * в котором ничего не измерено, тоже падает, чтобы аннотация не оставалась без проверки.
+ */
+public class QueryBudgetExtension implements BeforeEachCallback, AfterEachCallback {
+    private QueryBudget budget;
+    private String operation;
+    private boolean measured;
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        budget = context.getRequiredTestMethod().getAnnotation(QueryBudget.class);
+        operation = context.getRequiredTestMethod().getName();
+        measured = false;
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        if (budget != null && !measured) {
+            throw new AssertionError(operation + " declares a query budget but measured no call");
+        }
+    }
+
+    public void measure(Runnable call) {
+        measure(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public <T> T measure(Supplier<T> call) {
+        if (budget == null) {
+            throw new IllegalStateException(operation + " has no @QueryBudget");
+        }
+        QueryCountHolder.clear();
+        T result = call.get();
+        QueryCount count = QueryCountHolder.getGrandTotal();
+        measured = true;
+        if (count.getTotal() > budget.value()) {
+            throw new AssertionError(String.format(
+                    "%s exceeded query budget: %d statements, budget %d (select %d, insert %d, update %d, delete %d, other %d)",
+                    operation, count.getTotal(), budget.value(), count.getSelect(), count.getInsert(),
+                    count.getUpdate(), count.getDelete(), count.getOther()));
+        }
+        return result;
+    }
+}
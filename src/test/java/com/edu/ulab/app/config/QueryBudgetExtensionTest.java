@@ -0,0 +1,122 @@
+package com.edu.ulab.app.config;
+
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import net.ttddyy.dsproxy.listener.DataSourceQueryCountListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование проверки бюджета {@link QueryBudgetExtension}. Счётчики заполняются напрямую или прокси
+ * datasource-proxy над заглушкой источника данных, база не нужна.
+ */
+@DisplayName("Testing query budget extension.")
+public class QueryBudgetExtensionTest {
+    private static final String INSERT_SQL = "insert into ulab_edu.book (id) values (?)";
+    private static final List<Object[]> ROWS = List.of(new Object[]{1}, new Object[]{2}, new Object[]{3});
+
+    @RegisterExtension
+    final QueryBudgetExtension queryBudget = new QueryBudgetExtension();
+
+    @Test
+    @QueryBudget(2)
+    @DisplayName("Вызов в пределах бюджета. Должен вернуть результат вызова.")
+    void withinBudget_returnsResult() {
+        //when
+        String result = queryBudget.measure(() -> {
+            executeStatements(2);
+            return "done";
+        });
+
+        //then
+        assertThat(result).isEqualTo("done");
+    }
+
+    @Test
+    @QueryBudget(1)
+    @DisplayName("Вызов сверх бюджета. Должен упасть с числом statement в сообщении.")
+    void overBudget_fails() {
+        //then
+        assertThatThrownBy(() -> queryBudget.measure(() -> executeStatements(3)))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("3 statements, budget 1");
+    }
+
+    @Test
+    @QueryBudget(1)
+    @DisplayName("Пачка JdbcTemplate через прокси источника данных. Должна считаться одним statement.")
+    void jdbcBatch_countsAsOneStatement() throws SQLException {
+        //given
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(proxyDataSource());
+
+        //when
+        int[] updated = queryBudget.measure(() -> jdbcTemplate.batchUpdate(INSERT_SQL, ROWS));
+
+        //then
+        assertThat(updated).hasSize(ROWS.size());
+    }
+
+    @Test
+    @QueryBudget(1)
+    @DisplayName("Вставка по строке через прокси источника данных. Должна превысить бюджет пачки.")
+    void rowByRowInserts_overBudget() throws SQLException {
+        //given
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(proxyDataSource());
+
+        //then
+        assertThatThrownBy(() -> queryBudget.measure(() -> ROWS.forEach(row -> jdbcTemplate.update(INSERT_SQL, row))))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("3 statements, budget 1");
+    }
+
+    private static void executeStatements(int count) {
+        QueryCount queryCount = new QueryCount();
+        for (int i = 0; i < count; i++) {
+            queryCount.incrementTotal();
+            queryCount.incrementSelect();
+        }
+        QueryCountHolder.put("DS-Proxy", queryCount);
+    }
+
+    /**
+     * Прокси с тем же счётчиком, что в {@link PostgreSqlContainerConfig}, над источником данных,
+     * который принимает любые statement и пачки.
+     */
+    private static DataSource proxyDataSource() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeUpdate()).thenReturn(1);
+        when(statement.executeBatch()).thenReturn(new int[]{1, 1, 1});
+
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(metaData.supportsBatchUpdates()).thenReturn(true);
+
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(connection.getMetaData()).thenReturn(metaData);
+
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        return ProxyDataSourceBuilder
+                .create(dataSource)
+                .name("DS-Proxy")
+                .listener(new DataSourceQueryCountListener())
+                .build();
+    }
+}
@@ -0,0 +1,146 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.impl.BookServiceImplStorage;
+import com.edu.ulab.app.service.impl.UserServiceImplStorage;
+import com.edu.ulab.app.storage.Storage;
+import com.edu.ulab.app.storage.UserRecord;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тестирование асинхронного создания {@link UserAsyncFacade} поверх {@link Storage}.
+ */
+@ActiveProfiles("test")
+@DisplayName("Testing async user create functionality.")
+public class UserAsyncFacadeTest {
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    private final Storage storage = new Storage(1);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Создание пользователя с книгами на пуле. Должен вернуть идентификаторы пользователя и книг.")
+    void createUserWithBooks_Test() throws Exception {
+        //given
+        UserAsyncFacade facade = facade(1, 10);
+        UserBookRequest request = request();
+
+        //when
+        UserBookResponse response = facade.createUserWithBooks(request).get(5, TimeUnit.SECONDS);
+
+        //then
+        assertThat(response.getUserId()).isNotNull();
+        assertThat(response.getBooksIdList()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Создание при занятом пуле без очереди. Должен сразу отклонить запрос.")
+    void createUserWithBooksRejected_Test() throws Exception {
+        //given
+        UserAsyncFacade facade = facade(1, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        //when
+        //then
+        try {
+            assertThatThrownBy(() -> facade.createUserWithBooks(request()))
+                    .isInstanceOf(TaskRejectedException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Создание пользователя с книгами. Преобразование и сохранение должны быть одной задачей пула.")
+    void createUserWithBooksSingleTask_Test() throws Exception {
+        //given
+        List<Runnable> tasks = new ArrayList<>();
+        UserAsyncFacade facade = facade(tasks::add);
+
+        //when
+        CompletableFuture<UserBookResponse> result = facade.createUserWithBooks(request());
+        assertThat(tasks).hasSize(1);
+        tasks.get(0).run();
+
+        //then
+        assertThat(result.get(5, TimeUnit.SECONDS).getBooksIdList()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Отмена до начала задачи. Пользователь не должен быть создан.")
+    void createUserWithBooksCancelled_Test() {
+        //given
+        List<Runnable> tasks = new ArrayList<>();
+        UserAsyncFacade facade = facade(tasks::add);
+        CompletableFuture<UserBookResponse> result = facade.createUserWithBooks(request());
+
+        //when
+        result.cancel(false);
+        tasks.forEach(Runnable::run);
+
+        //then
+        List<UserRecord> users = new ArrayList<>();
+        storage.forEach(users::add, book -> {
+        });
+        assertThat(users).isEmpty();
+    }
+
+    private UserAsyncFacade facade(int poolSize, int queueCapacity) {
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.initialize();
+        return facade(executor);
+    }
+
+    private UserAsyncFacade facade(Executor executor) {
+        UserDataFacade userDataFacade = new UserDataFacade(new UserServiceImplStorage(storage),
+                new BookServiceImplStorage(storage), new UserMapperImpl(), new BookMapperImpl());
+        return new UserAsyncFacade(userDataFacade, new UserMapperImpl(), new BookMapperImpl(), executor);
+    }
+
+    private static UserBookRequest request() {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName("async");
+        userRequest.setTitle("reader");
+        userRequest.setAge(30);
+        BookRequest first = new BookRequest();
+        first.setTitle("first");
+        BookRequest second = new BookRequest();
+        second.setTitle("second");
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(List.of(first, second));
+        return request;
+    }
+}
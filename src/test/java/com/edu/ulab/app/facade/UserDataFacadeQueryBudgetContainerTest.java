@@ -0,0 +1,266 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.config.PersistenceBackendConfig;
+import com.edu.ulab.app.config.QueryBudget;
+import com.edu.ulab.app.config.QueryBudgetExtension;
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.id.SequenceIdAllocator;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import com.edu.ulab.app.storage.Storage;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.edu.ulab.app.web.response.UserPageResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Бюджеты обращений к базе для операций {@link UserDataFacade} поверх JDBC и JPA сервисов.
+ * <p>
+ * Сценарии общие, бэкенд выбирается свойством {@value PersistenceBackendConfig#BACKEND_PROPERTY} во вложенных
+ * классах. Тест выполняется без общей транзакции: каждый вызов фасада фиксирует свою, так что в счёт попадают
+ * все его statement. Книг у пользователя больше, чем бюджет, поэтому вставка, обновление или чтение
+ * по строке на книгу бюджет превышает.
+ */
+@SystemJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({UserDataFacade.class, UserMapperImpl.class, BookMapperImpl.class, SequenceIdAllocator.class,
+        PersistenceBackendConfig.class, UserDataFacadeQueryBudgetContainerTest.Services.class})
+@TestPropertySource(properties = PersistenceBackendConfig.BACKEND_PROPERTY + "=jdbc")
+@Sql({"classpath:sql/1_clear_schema.sql"})
+public class UserDataFacadeQueryBudgetContainerTest {
+    private static final int BOOK_COUNT = 20;
+
+    @RegisterExtension
+    final QueryBudgetExtension queryBudget = new QueryBudgetExtension();
+
+    @Nested
+    @DisplayName("Сервисы на JdbcTemplate")
+    class Jdbc extends Scenarios {
+        @DisplayName("Создать пользователя с книгами. Не больше двух обращений к последовательности и двух вставок")
+        @Test
+        @QueryBudget(4)
+        void createUserWithBooks_withinBudget() {
+            createUserWithBooks();
+        }
+
+        @DisplayName("Обновить пользователя, создав, изменив и удалив книги. Каждая группа изменений — одна пачка")
+        @Test
+        @QueryBudget(7)
+        void updateUserWithBooks_withinBudget() {
+            updateUserWithBooks();
+        }
+
+        @DisplayName("Получить пользователя с книгами. Должен быть один запрос")
+        @Test
+        @QueryBudget(1)
+        void getUserWithBooks_withinBudget() {
+            getUserWithBooks();
+        }
+
+        @DisplayName("Получить страницу пользователей. Должен быть один запрос")
+        @Test
+        @QueryBudget(1)
+        void getUsers_withinBudget() {
+            getUsers();
+        }
+
+        @DisplayName("Удалить пользователя с книгами. Должен быть один запрос")
+        @Test
+        @QueryBudget(1)
+        void deleteUserWithBooks_withinBudget() {
+            deleteUserWithBooks();
+        }
+    }
+
+    /**
+     * Пакетные insert и update Hibernate настроены только в профиле prod, без них бюджеты не достижимы.
+     */
+    @Nested
+    @DisplayName("Сервисы на JPA")
+    @ActiveProfiles("prod")
+    @TestPropertySource(properties = PersistenceBackendConfig.BACKEND_PROPERTY + "=jpa")
+    class Jpa extends Scenarios {
+        @DisplayName("Создать пользователя с книгами. Не больше двух обращений к последовательности и двух вставок")
+        @Test
+        @QueryBudget(4)
+        void createUserWithBooks_withinBudget() {
+            createUserWithBooks();
+        }
+
+        @DisplayName("Обновить пользователя с книгами. Сверх пачек — загрузка пользователя и изменяемых книг")
+        @Test
+        @QueryBudget(8)
+        void updateUserWithBooks_withinBudget() {
+            updateUserWithBooks();
+        }
+
+        @DisplayName("Получить пользователя с книгами. Должен быть один запрос")
+        @Test
+        @QueryBudget(1)
+        void getUserWithBooks_withinBudget() {
+            getUserWithBooks();
+        }
+
+        @DisplayName("Получить страницу пользователей. Должен быть один запрос")
+        @Test
+        @QueryBudget(1)
+        void getUsers_withinBudget() {
+            getUsers();
+        }
+
+        @DisplayName("Удалить пользователя с книгами. Два запроса: книги, затем пользователь")
+        @Test
+        @QueryBudget(2)
+        void deleteUserWithBooks_withinBudget() {
+            deleteUserWithBooks();
+        }
+    }
+
+    /**
+     * Сценарии операций фасада. Подготовка данных идёт вне {@link QueryBudgetExtension#measure}, в бюджет
+     * попадает только сам вызов.
+     */
+    abstract class Scenarios {
+        @Autowired
+        UserDataFacade userDataFacade;
+
+        @Autowired
+        JdbcTemplate jdbcTemplate;
+
+        void createUserWithBooks() {
+            //given
+            UserBookRequest request = userBookRequest(null, books(BOOK_COUNT));
+
+            //when
+            UserBookResponse response = queryBudget.measure(() -> userDataFacade.createUserWithBooks(request));
+
+            //then
+            assertThat(response.getBooksIdList()).hasSize(BOOK_COUNT);
+            assertThat(bookCount(response.getUserId())).isEqualTo(BOOK_COUNT);
+        }
+
+        void updateUserWithBooks() {
+            //given
+            UserBookResponse created = userDataFacade.createUserWithBooks(userBookRequest(null, books(BOOK_COUNT)));
+            List<Long> bookIds = created.getBooksIdList();
+            List<BookRequest> bookRequests = new ArrayList<>();
+            for (int i = 0; i < BOOK_COUNT / 2; i++) {
+                BookRequest bookRequest = book("updated " + i);
+                bookRequest.setId(bookIds.get(i));
+                bookRequests.add(bookRequest);
+            }
+            bookRequests.addAll(books(BOOK_COUNT));
+            UserBookRequest request = userBookRequest(created.getUserId(), bookRequests);
+            request.getUserRequest().setFullName("Updated");
+
+            //when
+            UserBookResponse response = queryBudget.measure(() -> userDataFacade.updateUserWithBooks(request));
+
+            //then
+            assertThat(response.getBooksIdList()).hasSize(BOOK_COUNT / 2 + BOOK_COUNT);
+            assertThat(bookCount(created.getUserId())).isEqualTo(BOOK_COUNT / 2 + BOOK_COUNT);
+        }
+
+        void getUserWithBooks() {
+            //given
+            UserBookResponse created = userDataFacade.createUserWithBooks(userBookRequest(null, books(BOOK_COUNT)));
+
+            //when
+            UserBookResponse response = queryBudget.measure(() -> userDataFacade.getUserWithBooks(created.getUserId()));
+
+            //then
+            assertThat(response.getBooksIdList()).containsExactlyElementsOf(created.getBooksIdList());
+        }
+
+        void getUsers() {
+            //given
+            for (int i = 0; i < BOOK_COUNT; i++) {
+                UserBookRequest request = userBookRequest(null, books(1));
+                request.getUserRequest().setTitle("reader " + i);
+                userDataFacade.createUserWithBooks(request);
+            }
+
+            //when
+            UserPageResponse page = queryBudget.measure(() -> userDataFacade.getUsers(0, BOOK_COUNT / 2));
+
+            //then
+            assertThat(page.getUsers()).hasSize(BOOK_COUNT / 2);
+            assertThat(page.getNextAfterId()).isNotNull();
+        }
+
+        void deleteUserWithBooks() {
+            //given
+            UserBookResponse created = userDataFacade.createUserWithBooks(userBookRequest(null, books(BOOK_COUNT)));
+
+            //when
+            queryBudget.measure(() -> userDataFacade.deleteUserWithBooks(created.getUserId()));
+
+            //then
+            assertThat(bookCount(created.getUserId())).isZero();
+        }
+
+        private int bookCount(Long userId) {
+            return jdbcTemplate.queryForObject("select count(*) from ulab_edu.book where person_id = ?",
+                    Integer.class, userId);
+        }
+    }
+
+    /**
+     * Все реализации сервисов под именами, как при сканировании приложения: на них ссылаются
+     * псевдонимы {@link PersistenceBackendConfig}, а {@code @Import} регистрирует бины под полным именем класса.
+     */
+    @TestConfiguration
+    @ComponentScan(basePackageClasses = UserServiceImplTemplate.class)
+    @Import(Storage.class)
+    static class Services {
+    }
+
+    private static UserBookRequest userBookRequest(Long userId, List<BookRequest> bookRequests) {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setId(userId);
+        userRequest.setFullName("Test Test");
+        userRequest.setTitle("reader");
+        userRequest.setAge(30);
+
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(bookRequests);
+        return request;
+    }
+
+    private static List<BookRequest> books(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> book("book " + i))
+                .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+    }
+
+    private static BookRequest book(String title) {
+        BookRequest bookRequest = new BookRequest();
+        bookRequest.setTitle(title);
+        bookRequest.setAuthor("author");
+        bookRequest.setPageCount(100);
+        return bookRequest;
+    }
+}
@@ -0,0 +1,216 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.BadRequestException;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.edu.ulab.app.web.response.UserPageResponse;
+import com.edu.ulab.app.web.response.UserResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование функционала {@link UserDataFacade}.
+ */
+@UnitTest
+@DisplayName("Testing user data facade functionality.")
+public class UserDataFacadeTest {
+    @Mock
+    UserService userService;
+
+    @Mock
+    BookService bookService;
+
+    UserDataFacade userDataFacade;
+
+    @BeforeEach
+    void setUp() {
+        userDataFacade = new UserDataFacade(userService, bookService, new UserMapperImpl(), new BookMapperImpl());
+    }
+
+    @Test
+    @DisplayName("Обновление пользователя с книгами. Должно записать только изменившиеся строки.")
+    void updateUserWithBooks_Test() {
+        //given
+        UserDto storedUser = user(1L, "test name");
+        BookDto unchanged = book(10L, "unchanged");
+        BookDto changed = book(11L, "old title");
+        BookDto removed = book(12L, "removed");
+
+        UserBookRequest request = request(user(1L, "test name"),
+                bookRequest(10L, "unchanged"),
+                bookRequest(11L, "new title"),
+                bookRequest(null, "added"));
+
+        BookDto created = book(13L, "added");
+
+        //when
+
+        when(userService.getUserByIdUncached(1L)).thenReturn(storedUser);
+        when(bookService.getBooksByUserId(1L)).thenReturn(List.of(unchanged, changed, removed));
+        when(bookService.createBooks(anyList())).thenReturn(List.of(created));
+
+
+        //then
+        UserBookResponse response = userDataFacade.updateUserWithBooks(request);
+        assertThat(response.getBooksIdList()).containsExactly(10L, 11L, 13L);
+        verify(userService, never()).updateUser(any());
+        verify(bookService).createBooks(List.of(book(13L, "added")));
+        verify(bookService).updateBooks(List.of(book(11L, "new title")));
+        verify(bookService).deleteBooksByIds(List.of(12L));
+    }
+
+    @Test
+    @DisplayName("Обновление с чужой книгой. Должно выбросить NotFoundException до изменений.")
+    void updateUserWithBooks_ForeignBook_Test() {
+        //given
+        UserBookRequest request = request(user(1L, "new name"), bookRequest(99L, "foreign"));
+
+        //when
+
+        when(userService.getUserByIdUncached(1L)).thenReturn(user(1L, "test name"));
+        when(bookService.getBooksByUserId(1L)).thenReturn(List.of());
+
+
+        //then
+        assertThatThrownBy(() -> userDataFacade.updateUserWithBooks(request))
+                .isInstanceOf(NotFoundException.class);
+        verify(bookService, never()).createBooks(anyList());
+        verify(bookService, never()).updateBooks(anyList());
+        verify(bookService, never()).deleteBooksByIds(anyList());
+    }
+
+    @Test
+    @DisplayName("Обновление с повторяющейся книгой. Должно выбросить BadRequestException до изменения книг.")
+    void updateUserWithBooks_DuplicateBook_Test() {
+        //given
+        UserBookRequest request = request(user(1L, "test name"),
+                bookRequest(10L, "first"),
+                bookRequest(10L, "second"));
+
+        //when
+
+        when(userService.getUserByIdUncached(1L)).thenReturn(user(1L, "test name"));
+        when(bookService.getBooksByUserId(1L)).thenReturn(List.of(book(10L, "stored")));
+
+
+        //then
+        assertThatThrownBy(() -> userDataFacade.updateUserWithBooks(request))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("10");
+        verify(bookService, never()).createBooks(anyList());
+        verify(bookService, never()).updateBooks(anyList());
+        verify(bookService, never()).deleteBooksByIds(anyList());
+    }
+
+    @Test
+    @DisplayName("Обновление без id пользователя. Должно выбросить BadRequestException без обращений к сервисам.")
+    void updateUserWithBooks_MissingUserId_Test() {
+        //given
+        UserBookRequest request = request(user(null, "test name"), bookRequest(null, "added"));
+
+        //then
+        assertThatThrownBy(() -> userDataFacade.updateUserWithBooks(request))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(userService, bookService);
+    }
+
+    @Test
+    @DisplayName("Создание пользователя без списка книг. Должно создать пользователя без книг.")
+    void createUserWithBooks_NoBookRequests_Test() {
+        //given
+        UserBookRequest request = request(user(null, "test name"));
+        request.setBookRequests(null);
+
+        //when
+        when(userService.createUser(any())).thenReturn(user(1L, "test name"));
+        when(bookService.createBooks(anyList())).thenReturn(List.of());
+
+        //then
+        UserBookResponse response = userDataFacade.createUserWithBooks(request);
+        assertThat(response.getUserId()).isEqualTo(1L);
+        assertThat(response.getBooksIdList()).isEmpty();
+        verify(bookService).createBooks(List.of());
+    }
+
+    @Test
+    @DisplayName("Страница пользователей. Должна вернуть id для следующей страницы, только если страница полная.")
+    void getUsers_Test() {
+        //given
+        when(userService.getUsersAfter(0L, 2)).thenReturn(List.of(user(1L, "first"), user(3L, "second")));
+        when(userService.getUsersAfter(3L, 2)).thenReturn(List.of(user(4L, "third")));
+
+        //when
+        UserPageResponse firstPage = userDataFacade.getUsers(0L, 2);
+        UserPageResponse lastPage = userDataFacade.getUsers(firstPage.getNextAfterId(), 2);
+
+        //then
+        assertThat(firstPage.getUsers()).extracting(UserResponse::getId).containsExactly(1L, 3L);
+        assertThat(firstPage.getNextAfterId()).isEqualTo(3L);
+        assertThat(lastPage.getUsers()).extracting(UserResponse::getFullName).containsExactly("third");
+        assertThat(lastPage.getNextAfterId()).isNull();
+    }
+
+    private static UserDto user(Long id, String fullName) {
+        UserDto userDto = new UserDto();
+        userDto.setId(id);
+        userDto.setFullName(fullName);
+        userDto.setTitle("test title");
+        userDto.setAge(30);
+        return userDto;
+    }
+
+    private static BookDto book(Long id, String title) {
+        BookDto bookDto = new BookDto();
+        bookDto.setId(id);
+        bookDto.setUserId(1L);
+        bookDto.setTitle(title);
+        bookDto.setAuthor("test author");
+        bookDto.setPageCount(100);
+        return bookDto;
+    }
+
+    private static BookRequest bookRequest(Long id, String title) {
+        BookRequest bookRequest = new BookRequest();
+        bookRequest.setId(id);
+        bookRequest.setTitle(title);
+        bookRequest.setAuthor("test author");
+        bookRequest.setPageCount(100);
+        return bookRequest;
+    }
+
+    private static UserBookRequest request(UserDto userDto, BookRequest... bookRequests) {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setId(userDto.getId());
+        userRequest.setFullName(userDto.getFullName());
+        userRequest.setTitle(userDto.getTitle());
+        userRequest.setAge(userDto.getAge());
+
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(List.of(bookRequests));
+        return request;
+    }
+}
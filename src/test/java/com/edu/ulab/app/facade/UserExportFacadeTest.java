@@ -0,0 +1,55 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.dto.UserBooksDto;
+import com.edu.ulab.app.service.impl.UserServiceImplStorage;
+import com.edu.ulab.app.storage.BookRecord;
+import com.edu.ulab.app.storage.Storage;
+import com.edu.ulab.app.storage.UserRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование выгрузки {@link UserExportFacade} поверх {@link Storage}.
+ */
+@ActiveProfiles("test")
+@DisplayName("Testing user export functionality.")
+public class UserExportFacadeTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Выгрузка в NDJSON. Должна вернуть каждого пользователя одной строкой вместе с его книгами.")
+    void exportNdjson_Test() throws IOException {
+        //given
+        Storage storage = new Storage(4);
+        long readerId = storage.createUser(new UserRecord(0, "reader", "title", 30)).id();
+        long idleId = storage.createUser(new UserRecord(0, "idle", "title", 40)).id();
+        storage.createBook(new BookRecord(0, readerId, "first", "author", 10));
+        storage.createBook(new BookRecord(0, readerId, "second", "author", 20));
+        UserExportFacade userExportFacade = new UserExportFacade(new UserServiceImplStorage(storage), objectMapper);
+
+        //when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        userExportFacade.exportUsersWithBooks(out);
+        List<UserBooksDto> exported = objectMapper.readerFor(UserBooksDto.class)
+                .<UserBooksDto>readValues(out.toByteArray())
+                .readAll();
+
+        //then
+        assertThat(exported).extracting(userBooks -> userBooks.getUser().getId())
+                .containsExactlyInAnyOrder(readerId, idleId);
+        UserBooksDto reader = exported.stream()
+                .filter(userBooks -> userBooks.getUser().getId() == readerId)
+                .findFirst()
+                .orElseThrow();
+        assertThat(reader.getBooks()).extracting("title").containsExactly("first", "second");
+        assertThat(out.toString()).hasLineCount(2);
+    }
+}
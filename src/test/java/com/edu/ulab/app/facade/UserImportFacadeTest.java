@@ -0,0 +1,135 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.service.impl.BookServiceImplStorage;
+import com.edu.ulab.app.service.impl.UserServiceImplStorage;
+import com.edu.ulab.app.storage.BookRecord;
+import com.edu.ulab.app.storage.Storage;
+import com.edu.ulab.app.storage.UserRecord;
+import com.edu.ulab.app.web.response.UserImportResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование импорта {@link UserImportFacade} поверх {@link Storage}.
+ */
+@ActiveProfiles("test")
+@DisplayName("Testing user import functionality.")
+public class UserImportFacadeTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Импорт NDJSON пачками. Должен вернуть результат по каждой записи в порядке входа.")
+    void importNdjson_Test() throws IOException {
+        //given
+        String input = """
+                {"userRequest": {"fullName": "first", "title": "t1", "age": 30}, "bookRequests": [{"title": "b1"}, {"title": "b2"}]}
+                {"bookRequests": []}
+                {"userRequest": {"fullName": "second", "title": "t2", "age": 40}}
+                """;
+
+        //when
+        List<UserImportResult> results = importUsers(input, 2);
+
+        //then
+        assertThat(results).extracting(UserImportResult::getIndex).containsExactly(0L, 1L, 2L);
+        assertThat(results.get(0).getBooksIdList()).hasSize(2);
+        assertThat(results.get(1).getError()).isEqualTo("User is required");
+        assertThat(results.get(2).getUserId()).isNotNull();
+        assertThat(results.get(2).getBooksIdList()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Импорт JSON-массива с ошибкой разбора. Должен сохранить прочитанное и сообщить об ошибке.")
+    void importMalformedArray_Test() throws IOException {
+        //given
+        String input = """
+                [{"userRequest": {"fullName": "first", "title": "t1", "age": 30}},
+                 {"userRequest": {"fullName": "second", "age": "not a number"}}]
+                """;
+
+        //when
+        List<UserImportResult> results = importUsers(input, 10);
+
+        //then
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).getUserId()).isNotNull();
+        assertThat(results.get(1).getIndex()).isEqualTo(1L);
+        assertThat(results.get(1).getError()).startsWith("Malformed input");
+    }
+
+    @Test
+    @DisplayName("Сбой пачки после части вставок в хранилище без транзакций. Не должен создавать пользователей повторно.")
+    void importPartlyFailedChunk_Test() throws IOException {
+        //given
+        String input = """
+                {"userRequest": {"fullName": "first", "title": "t1", "age": 30}, "bookRequests": [{"title": "b1"}, {"title": "b2"}]}
+                {"userRequest": {"fullName": "second", "title": "t2", "age": 40}, "bookRequests": [{"title": "b3"}, {"title": "b4"}]}
+                """;
+        Storage storage = new Storage(1);
+        BookService bookService = new BookServiceImplStorage(storage) {
+            private boolean failed;
+
+            @Override
+            public List<BookDto> createBooks(List<BookDto> bookDtos) {
+                if (failed) {
+                    return super.createBooks(bookDtos);
+                }
+                failed = true;
+                super.createBooks(bookDtos.subList(0, 3));
+                throw new IllegalStateException("connection lost");
+            }
+        };
+
+        //when
+        List<UserImportResult> results = importUsers(input, 2, storage, bookService);
+
+        //then
+        List<UserRecord> users = new ArrayList<>();
+        List<BookRecord> books = new ArrayList<>();
+        storage.forEach(users::add, books::add);
+        assertThat(users).extracting(UserRecord::fullName).containsExactlyInAnyOrder("first", "second");
+        assertThat(books).extracting(BookRecord::title).containsExactlyInAnyOrder("b1", "b2", "b3", "b4");
+        assertThat(results).extracting(UserImportResult::getError).containsOnlyNulls();
+        assertThat(results).extracting(UserImportResult::getUserId).doesNotHaveDuplicates();
+        assertThat(results).flatExtracting(UserImportResult::getBooksIdList)
+                .containsExactlyInAnyOrderElementsOf(books.stream().map(BookRecord::id).toList());
+    }
+
+    private List<UserImportResult> importUsers(String input, int chunkSize) throws IOException {
+        Storage storage = new Storage(1);
+        return importUsers(input, chunkSize, storage, new BookServiceImplStorage(storage));
+    }
+
+    private List<UserImportResult> importUsers(String input, int chunkSize, Storage storage, BookService bookService)
+            throws IOException {
+        UserService userService = new UserServiceImplStorage(storage);
+        UserDataFacade userDataFacade = new UserDataFacade(userService, bookService,
+                new UserMapperImpl(), new BookMapperImpl());
+        UserImportFacade userImportFacade = new UserImportFacade(userService, bookService, userDataFacade,
+                new UserMapperImpl(), new BookMapperImpl(), TransactionOperations.withoutTransaction(),
+                objectMapper, chunkSize);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        userImportFacade.importUsersWithBooks(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out);
+        return objectMapper.readerFor(UserImportResult.class)
+                .<UserImportResult>readValues(out.toByteArray())
+                .readAll();
+    }
+}
@@ -0,0 +1,84 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.config.PurgeProperties;
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.web.response.UserPurgeResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование фонового удаления {@link UserPurgeFacade}.
+ */
+@UnitTest
+@DisplayName("Testing user purge functionality.")
+public class UserPurgeFacadeTest {
+    @Mock
+    UserService userService;
+
+    @Test
+    @DisplayName("Запуск удаления. Должен сразу вернуть задачу, статус которой меняется после выполнения.")
+    void startPurge_Test() {
+        //given
+        List<Runnable> queued = new ArrayList<>();
+        UserPurgeFacade facade = facade(queued);
+        when(userService.deleteUsersByIds(List.of(1L, 2L))).thenReturn(2);
+        when(userService.deleteUsersByIds(List.of(3L))).thenReturn(0);
+
+        //when
+        UserPurgeResponse started = facade.startPurge(List.of(1L, 2L, 2L, 3L));
+        queued.forEach(Runnable::run);
+        UserPurgeResponse finished = facade.getPurgeJob(started.getJobId());
+
+        //then
+        assertThat(started.getStatus()).isEqualTo(UserPurgeResponse.Status.RUNNING);
+        assertThat(started.getRequested()).isEqualTo(3);
+        assertThat(finished.getStatus()).isEqualTo(UserPurgeResponse.Status.DONE);
+        assertThat(finished.getDeleted()).isEqualTo(2);
+        verify(userService).deleteUsersByIds(List.of(3L));
+    }
+
+    @Test
+    @DisplayName("Ошибка удаления. Статус задачи должен стать FAILED с текстом ошибки.")
+    void startPurgeFailed_Test() {
+        //given
+        UserPurgeFacade facade = facade(null);
+        when(userService.deleteUsersByIds(List.of(1L))).thenThrow(new IllegalStateException("database is down"));
+
+        //when
+        UserPurgeResponse response = facade.startPurge(List.of(1L));
+
+        //then
+        assertThat(facade.getPurgeJob(response.getJobId()).getStatus()).isEqualTo(UserPurgeResponse.Status.FAILED);
+        assertThat(facade.getPurgeJob(response.getJobId()).getError()).isEqualTo("database is down");
+    }
+
+    @Test
+    @DisplayName("Статус неизвестной задачи. Должен выбросить NotFoundException.")
+    void getUnknownPurgeJob_Test() {
+        //given
+        UserPurgeFacade facade = facade(null);
+
+        //then
+        assertThatThrownBy(() -> facade.getPurgeJob("unknown")).isInstanceOf(NotFoundException.class);
+    }
+
+    /**
+     * @param queued куда складывать задачи вместо выполнения; null — выполнять сразу
+     */
+    private UserPurgeFacade facade(List<Runnable> queued) {
+        PurgeProperties properties = new PurgeProperties();
+        properties.setChunkSize(2);
+        return new UserPurgeFacade(userService, queued == null ? Runnable::run : queued::add, properties);
+    }
+}
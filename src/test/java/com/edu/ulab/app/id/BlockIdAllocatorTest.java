@@ -0,0 +1,126 @@
+package com.edu.ulab.app.id;
+
+import com.edu.ulab.app.config.UnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование {@link BlockIdAllocator}.
+ */
+@UnitTest
+@DisplayName("Testing block id allocation.")
+public class BlockIdAllocatorTest {
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger roundTrips = new AtomicInteger();
+    private final SequenceBlockSource source = count -> {
+        roundTrips.incrementAndGet();
+        return IntStream.range(0, count).mapToLong(i -> sequence.incrementAndGet()).toArray();
+    };
+
+    @Test
+    @DisplayName("Идентификаторы совпадают с hilo Hibernate: значение последовательности hi даёт блок [hi * size, (hi + 1) * size).")
+    void nextId_usesHiLoBlocks() {
+        BlockIdAllocator allocator = new BlockIdAllocator(100);
+
+        long first = allocator.nextId(source);
+        long[] rest = allocator.nextIds(99, source);
+
+        assertThat(first).isEqualTo(100);
+        assertThat(rest).containsExactly(IntStream.range(101, 200).asLongStream().toArray());
+        assertThat(roundTrips).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Пакет больше блока резервирует все недостающие блоки одним обращением.")
+    void nextIds_reservesSeveralBlocksInOneRoundTrip() {
+        BlockIdAllocator allocator = new BlockIdAllocator(100);
+        allocator.nextId(source);
+
+        long[] ids = allocator.nextIds(450, source);
+
+        assertThat(Arrays.stream(ids).distinct().count()).isEqualTo(450);
+        assertThat(ids).doesNotContain(100);
+        assertThat(roundTrips).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Выдача без источника берёт только текущий блок и не трогает его, если идентификаторов не хватает.")
+    void tryNextIds_takesOnlyCurrentBlock() {
+        BlockIdAllocator allocator = new BlockIdAllocator(100);
+
+        long[] beforeFirstBlock = allocator.tryNextIds(1);
+        allocator.nextId(source);
+        long[] fromBlock = allocator.tryNextIds(98);
+        long[] tooMany = allocator.tryNextIds(2);
+        long[] last = allocator.tryNextIds(1);
+
+        assertThat(beforeFirstBlock).isNull();
+        assertThat(fromBlock).containsExactly(IntStream.range(101, 199).asLongStream().toArray());
+        assertThat(tooMany).isNull();
+        assertThat(last).containsExactly(199);
+        assertThat(roundTrips).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Конкурентная выдача не повторяет идентификаторы.")
+    void nextId_isUniqueUnderContention() throws Exception {
+        BlockIdAllocator allocator = new BlockIdAllocator(10);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = IntStream.range(0, 8)
+                    .<Future<?>>mapToObj(thread -> executor.submit(() -> {
+                        for (int i = 0; i < 1_000; i++) {
+                            ids.add(allocator.nextId(source));
+                            Arrays.stream(allocator.nextIds(7, source)).forEach(ids::add);
+                        }
+                    }))
+                    .toList();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(ids).hasSize(8 * 1_000 * 8);
+    }
+
+    @Test
+    @DisplayName("Конкурентная выдача не выбрасывает блоки: неразданным остаётся не больше одного блока.")
+    void nextIds_doesNotDiscardBlocksUnderContention() throws Exception {
+        BlockIdAllocator allocator = new BlockIdAllocator(10);
+        AtomicLong handedOut = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = IntStream.range(0, 8)
+                    .<Future<?>>mapToObj(thread -> executor.submit(() -> {
+                        for (int i = 0; i < 10_000; i++) {
+                            allocator.nextId(source);
+                            handedOut.addAndGet(1 + allocator.nextIds(13, source).length);
+                        }
+                    }))
+                    .toList();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(sequence.get() * 10 - handedOut.get()).isLessThan(10);
+    }
+}
@@ -0,0 +1,57 @@
+package com.edu.ulab.app.loader;
+
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.id.SequenceIdAllocator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты загрузки {@link CopyLoader} в PostgreSQL.
+ */
+@SystemJpaTest
+@Import({CopyLoader.class, SequenceIdAllocator.class, JacksonAutoConfiguration.class})
+public class CopyLoaderContainerTest {
+    @Autowired
+    CopyLoader copyLoader;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @DisplayName("Загрузить пользователей с книгами через COPY. Строки и связи должны совпасть со входом")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql"})
+    void load_thenRowsCopied() throws IOException {
+        //Given
+        String input = """
+                {"userRequest": {"fullName": "Test, \\"quoted\\"", "title": "reader", "age": 30}, "bookRequests": [{"title": "first", "author": "author", "pageCount": 10}, {"title": "second", "author": "author", "pageCount": 20}]}
+                {"userRequest": {"fullName": "Other", "title": "writer", "age": 40}, "bookRequests": []}
+                """;
+
+        //When
+        LoadResult result = copyLoader.load(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+
+        //Then
+        assertThat(result).isEqualTo(new LoadResult(2, 2));
+        assertThat(jdbcTemplate.queryForList("select full_name from ulab_edu.person order by full_name", String.class))
+                .containsExactly("Other", "Test, \"quoted\"");
+        assertThat(jdbcTemplate.queryForObject("""
+                select count(*)
+                from ulab_edu.book b
+                         join ulab_edu.person p on p.id = b.person_id
+                where p.title = 'reader'""", Integer.class))
+                .isEqualTo(2);
+    }
+}
@@ -0,0 +1,69 @@
+package com.edu.ulab.app.metrics;
+
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.impl.BookServiceImplStorage;
+import com.edu.ulab.app.service.impl.UserServiceImplStorage;
+import com.edu.ulab.app.storage.Storage;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование метрик {@link FacadeMetricsAspect}.
+ */
+@ActiveProfiles("test")
+@DisplayName("Testing facade metrics.")
+public class FacadeMetricsAspectTest {
+
+    @Test
+    @DisplayName("Создание и чтение пользователя пишут таймеры, число книг и число обращений к базе.")
+    void createAndGet_thenRecordMetrics() {
+        //given
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Storage storage = new Storage(1);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new UserDataFacade(
+                new UserServiceImplStorage(storage), new BookServiceImplStorage(storage),
+                new UserMapperImpl(), new BookMapperImpl()));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new FacadeMetricsAspect(meterRegistry, new RoundTripCounter()));
+        UserDataFacade facade = proxyFactory.getProxy();
+
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName("test name");
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(List.of(new BookRequest(), new BookRequest()));
+
+        //when
+        Long userId = facade.createUserWithBooks(request).getUserId();
+        facade.getUserWithBooks(userId);
+
+        //then
+        assertThat(meterRegistry.get(FacadeMetricsAspect.TIMER_NAME)
+                .tag("operation", "createUserWithBooks")
+                .timer()
+                .count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get(FacadeMetricsAspect.BOOKS_SUMMARY_NAME)
+                .tag("operation", "getUserWithBooks")
+                .summary()
+                .totalAmount())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get(FacadeMetricsAspect.ROUND_TRIPS_SUMMARY_NAME)
+                .summaries())
+                .hasSize(2)
+                .allSatisfy(summary -> assertThat(summary.totalAmount()).isZero());
+    }
+}
@@ -0,0 +1,74 @@
+package com.edu.ulab.app.reactive;
+
+import com.edu.ulab.app.config.UnitTest;
+import io.r2dbc.spi.Row;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование выдачи идентификаторов {@link ReactiveIdAllocator} блоками последовательности.
+ */
+@UnitTest
+@DisplayName("Testing reactive id allocation.")
+public class ReactiveIdAllocatorTest {
+    private final DatabaseClient databaseClient = mock(DatabaseClient.class, RETURNS_DEEP_STUBS);
+    private final ReactiveIdAllocator idAllocator = new ReactiveIdAllocator(databaseClient);
+
+    @Test
+    @DisplayName("Идентификаторы из одного блока. К последовательности должен обратиться один раз.")
+    void nextIdsFromOneBlock_Test() {
+        //given
+        AtomicInteger queries = new AtomicInteger();
+        givenBlocks(1, queries, 3L);
+
+        //when
+        long[] first = idAllocator.nextIds(2).block();
+        long[] second = idAllocator.nextIds(2).block();
+
+        //then
+        assertThat(first).containsExactly(300L, 301L);
+        assertThat(second).containsExactly(302L, 303L);
+        assertThat(queries).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Идентификаторов больше размера блока. Должен запросить несколько блоков одним запросом.")
+    void nextIdsFromSeveralBlocks_Test() {
+        //given
+        AtomicInteger queries = new AtomicInteger();
+        givenBlocks(2, queries, 5L, 6L);
+
+        //when
+        long[] ids = idAllocator.nextIds(150).block();
+
+        //then
+        assertThat(ids).hasSize(150);
+        assertThat(ids[0]).isEqualTo(500L);
+        assertThat(ids[99]).isEqualTo(599L);
+        assertThat(ids[100]).isEqualTo(600L);
+        assertThat(ids[149]).isEqualTo(649L);
+        assertThat(queries).hasValue(1);
+    }
+
+    private void givenBlocks(int blocks, AtomicInteger queries, Long... values) {
+        when(databaseClient.sql(ReactiveIdAllocator.NEXT_VALUES_SQL)
+                .bind("count", blocks)
+                .map(ArgumentMatchers.<Function<Row, Long>>any())
+                .all())
+                .thenReturn(Flux.defer(() -> {
+                    queries.incrementAndGet();
+                    return Flux.just(values);
+                }));
+    }
+}
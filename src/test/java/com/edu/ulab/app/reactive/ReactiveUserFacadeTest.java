@@ -0,0 +1,218 @@
+package com.edu.ulab.app.reactive;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.web.constant.WebConstant;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование {@link ReactiveUserFacade} и маршрутов {@link ReactiveConfig#routes}.
+ */
+@UnitTest
+@DisplayName("Testing reactive user facade functionality.")
+public class ReactiveUserFacadeTest {
+    @Mock
+    PersonRowRepository personRepository;
+
+    @Mock
+    BookRowRepository bookRepository;
+
+    @Mock
+    ReactiveIdAllocator idAllocator;
+
+    @Mock
+    TransactionalOperator transactionalOperator;
+
+    ReactiveUserFacade userFacade;
+
+    @BeforeEach
+    void setUp() {
+        userFacade = new ReactiveUserFacade(personRepository, bookRepository, idAllocator, transactionalOperator,
+                new UserMapperImpl(), new BookMapperImpl(), 3, Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("Обновление с конфликтом версий. Должно перечитать строки и повторить, записав только изменившиеся.")
+    void updateUserWithBooks_Test() {
+        //given
+        when(transactionalOperator.transactional(ArgumentMatchers.<Mono<UserBookResponse>>any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(personRepository.findById(1L)).thenAnswer(invocation -> Mono.just(person(1L, "test name")));
+        when(bookRepository.findByPersonIdOrderById(1L))
+                .thenAnswer(invocation -> Flux.just(book(10L, "unchanged"), book(11L, "old title")));
+        when(bookRepository.saveAll(anyList()))
+                .thenReturn(Flux.error(new OptimisticLockingFailureException("conflict")))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<BookRow>>getArgument(0)));
+        UserBookRequest request = request(bookRequest(10L, "unchanged"), bookRequest(11L, "new title"));
+
+        //when
+        UserBookResponse response = userFacade.updateUserWithBooks(request).block();
+
+        //then
+        assertThat(response.getUserId()).isEqualTo(1L);
+        assertThat(response.getBooksIdList()).containsExactly(10L, 11L);
+        verify(personRepository, times(2)).findById(1L);
+        verify(personRepository, never()).save(any());
+        verify(bookRepository, never()).deleteAllById(any());
+        verify(idAllocator, never()).nextIds(anyInt());
+    }
+
+    @Test
+    @DisplayName("Создание пользователя с книгами. Должно сохранить строки с идентификаторами из одного блока.")
+    void createUserWithBooks_Test() {
+        //given
+        when(transactionalOperator.transactional(ArgumentMatchers.<Mono<UserBookResponse>>any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(idAllocator.nextIds(3)).thenReturn(Mono.just(new long[]{100L, 101L, 102L}));
+        when(personRepository.save(any(PersonRow.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(bookRepository.saveAll(anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<BookRow>>getArgument(0)));
+        UserBookRequest request = request(bookRequest(null, "first"), bookRequest(null, "second"));
+
+        //when
+        UserBookResponse response = userFacade.createUserWithBooks(request).block();
+
+        //then
+        assertThat(response.getUserId()).isEqualTo(100L);
+        assertThat(response.getBooksIdList()).containsExactly(101L, 102L);
+        verify(personRepository).save(ArgumentMatchers.<PersonRow>argThat(person -> person.getId() == 100L));
+        verify(bookRepository).saveAll(ArgumentMatchers.<List<BookRow>>argThat(books -> books.stream()
+                .allMatch(book -> book.getPersonId() == 100L)));
+    }
+
+    @Test
+    @DisplayName("Обновление с повторяющейся книгой через маршрут. Должен вернуть 400 и ничего не записать.")
+    void updateUserWithBooksDuplicateBook_Test() {
+        //given
+        when(transactionalOperator.transactional(ArgumentMatchers.<Mono<UserBookResponse>>any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(personRepository.findById(1L)).thenReturn(Mono.just(person(1L, "test name")));
+        when(bookRepository.findByPersonIdOrderById(1L)).thenReturn(Flux.just(book(10L, "title")));
+        UserBookRequest request = request(bookRequest(10L, "title"), bookRequest(10L, "other title"));
+
+        //when
+        //then
+        client().put()
+                .uri(WebConstant.VERSION_URL + "/user/update")
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errorMessage").isEqualTo("Book with id 10 is listed more than once");
+        verify(bookRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Нечисловые параметры через маршрут. Должен вернуть 400, не обращаясь к базе.")
+    void invalidParameters_Test() {
+        //given
+        WebTestClient client = client();
+
+        //when
+        //then
+        client.get()
+                .uri(WebConstant.VERSION_URL + "/user/get/abc")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errorMessage").isEqualTo("Parameter userId is not a number: abc");
+        client.get()
+                .uri(WebConstant.VERSION_URL + "/user?limit=many")
+                .exchange()
+                .expectStatus().isBadRequest();
+        client.delete()
+                .uri(WebConstant.VERSION_URL + "/user/delete/abc")
+                .exchange()
+                .expectStatus().isBadRequest();
+        verifyNoInteractions(personRepository, bookRepository);
+    }
+
+    @Test
+    @DisplayName("Получение отсутствующего пользователя через маршрут. Должен вернуть 400 с текстом ошибки.")
+    void getUserWithBooksNotFound_Test() {
+        //given
+        when(personRepository.existsById(5L)).thenReturn(Mono.just(false));
+
+        //when
+        //then
+        client().get()
+                .uri(WebConstant.VERSION_URL + "/user/get/5")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errorMessage").isEqualTo("User with id 5 not found");
+    }
+
+    private WebTestClient client() {
+        return WebTestClient.bindToRouterFunction(ReactiveConfig.routes(new UserHandler(userFacade))).build();
+    }
+
+    private static PersonRow person(Long id, String fullName) {
+        PersonRow person = new PersonRow();
+        person.setId(id);
+        person.setFullName(fullName);
+        person.setTitle("title");
+        person.setAge(30);
+        person.setVersion(0L);
+        return person;
+    }
+
+    private static BookRow book(Long id, String title) {
+        BookRow book = new BookRow();
+        book.setId(id);
+        book.setPersonId(1L);
+        book.setTitle(title);
+        book.setAuthor("author");
+        book.setPageCount(100);
+        book.setVersion(0L);
+        return book;
+    }
+
+    private static BookRequest bookRequest(Long id, String title) {
+        BookRequest bookRequest = new BookRequest();
+        bookRequest.setId(id);
+        bookRequest.setTitle(title);
+        bookRequest.setAuthor("author");
+        bookRequest.setPageCount(100);
+        return bookRequest;
+    }
+
+    private static UserBookRequest request(BookRequest... bookRequests) {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setId(1L);
+        userRequest.setFullName("test name");
+        userRequest.setTitle("title");
+        userRequest.setAge(30);
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(List.of(bookRequests));
+        return request;
+    }
+}
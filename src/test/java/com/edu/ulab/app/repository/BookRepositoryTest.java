@@ -3,6 +3,7 @@ package com.edu.ulab.app.repository;
 import com.edu.ulab.app.config.SystemJpaTest;
 import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.id.SequenceIdGenerator;
 import com.vladmihalcea.sql.SQLStatementCountValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -30,7 +31,7 @@ public class BookRepositoryTest {
         SQLStatementCountValidator.reset();
     }
 
-    @DisplayName("Сохранить книгу и автора. Число select должно равняться 1")
+    @DisplayName("Сохранить книгу и автора при свободных идентификаторах в блоках. Select к последовательностям быть не должно")
     @Test
     @Rollback
     @Sql({"classpath:sql/1_clear_schema.sql",
@@ -39,19 +40,13 @@ public class BookRepositoryTest {
     })
     void findAllBadges_thenAssertDmlCount() {
         //Given
+        allocateIdBlocks();
+        SQLStatementCountValidator.reset();
 
-        Person person = new Person();
-        person.setAge(111);
-        person.setTitle("reader");
-        person.setFullName("Test Test");
-
+        Person person = person("reader");
         Person savedPerson = userRepository.save(person);
 
-        Book book = new Book();
-        book.setAuthor("Test Author");
-        book.setTitle("test");
-        book.setPageCount(1000);
-        book.setPerson(savedPerson);
+        Book book = book("test", savedPerson);
 
         //When
         Book result = bookRepository.save(book);
@@ -59,12 +54,49 @@ public class BookRepositoryTest {
         //Then
         assertThat(result.getPageCount()).isEqualTo(1000);
         assertThat(result.getTitle()).isEqualTo("test");
-        assertSelectCount(2);
+        assertSelectCount(0);
         assertInsertCount(0);
         assertUpdateCount(0);
         assertDeleteCount(0);
     }
 
+    /**
+     * Сохраняет юзеров и книги, пока у обоих генераторов не останется свободный идентификатор в блоке.
+     * Блоки переживают тесты одного контекста, поэтому число select задаётся так, а не порядком тестов.
+     */
+    private void allocateIdBlocks() {
+        int i = 0;
+        Person person;
+        do {
+            person = userRepository.save(person("id block " + i++));
+        } while (lastInBlock(person.getId()));
+        Book book;
+        do {
+            book = bookRepository.save(book("id block " + i++, person));
+        } while (lastInBlock(book.getId()));
+    }
+
+    private static boolean lastInBlock(int id) {
+        return id % SequenceIdGenerator.BLOCK_SIZE == SequenceIdGenerator.BLOCK_SIZE - 1;
+    }
+
+    private static Person person(String title) {
+        Person person = new Person();
+        person.setAge(111);
+        person.setTitle(title);
+        person.setFullName("Test Test");
+        return person;
+    }
+
+    private static Book book(String title, Person person) {
+        Book book = new Book();
+        book.setAuthor("Test Author");
+        book.setTitle(title);
+        book.setPageCount(1000);
+        book.setPerson(person);
+        return book;
+    }
+
     // update
     // get
     // get all
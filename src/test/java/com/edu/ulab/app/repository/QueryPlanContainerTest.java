@@ -0,0 +1,80 @@
+package com.edu.ulab.app.repository;
+
+import com.edu.ulab.app.config.SystemJpaTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Планы запросов фасада к {@code ulab_edu.person} и {@code ulab_edu.book} на реалистичном объёме данных.
+ * <p>
+ * Запросы повторяют SQL, который Hibernate строит для методов {@link UserRepository} и {@link BookRepository},
+ * используемых фасадом; SQL сервисов на JdbcTemplate проверяет {@code TemplateQueryPlanContainerTest}.
+ * Ни в одном плане не должно быть последовательного сканирования: это значит, что пропал или перестал
+ * подходить индекс. Полная выгрузка сюда не входит — ей нужны все строки.
+ */
+@SystemJpaTest
+public class QueryPlanContainerTest {
+    /**
+     * Данные из {@code sql/4_insert_bulk_data.sql}: 10 000 пользователей по 10 книг, id книг после id пользователей.
+     */
+    private static final int USERS = 10_000;
+    private static final long USER_ID = USERS / 2;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    static Stream<Arguments> facadeQueries() {
+        return Stream.of(
+                Arguments.of("UserRepository.findUserBookIds", """
+                        select p.id, b.id
+                        from ulab_edu.person p
+                                 left outer join ulab_edu.book b on p.id = b.person_id
+                        where p.id = ?
+                        order by b.id""", new Object[]{USER_ID}),
+                Arguments.of("UserRepository.findById", """
+                        select id, age, full_name, title, version from ulab_edu.person where id = ?""",
+                        new Object[]{USER_ID}),
+                Arguments.of("UserRepository.findByIdGreaterThanOrderById", """
+                        select id, age, full_name, title, version from ulab_edu.person
+                        where id > ? order by id limit ?""", new Object[]{USER_ID, 100}),
+                Arguments.of("BookRepository.findAllByPersonIdOrderById", """
+                        select id, author, page_count, person_id, title, version from ulab_edu.book
+                        where person_id = ? order by id""", new Object[]{USER_ID}),
+                Arguments.of("BookRepository.findAllById", """
+                        select id, author, page_count, person_id, title, version from ulab_edu.book
+                        where id in (?, ?)""", new Object[]{USERS + 1L, USERS + 2L}),
+                Arguments.of("BookRepository.deleteByIds", """
+                        delete from ulab_edu.book where id in (?, ?)""", new Object[]{USERS + 1L, USERS + 2L}),
+                Arguments.of("BookRepository.deleteByPersonIds", """
+                        delete from ulab_edu.book where person_id in (?, ?)""", new Object[]{USER_ID, USER_ID + 1}),
+                Arguments.of("UserRepository.deleteByIds", """
+                        delete from ulab_edu.person where id in (?, ?)""", new Object[]{USER_ID, USER_ID + 1}));
+    }
+
+    @DisplayName("План запроса фасада не должен содержать Seq Scan")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("facadeQueries")
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql", "classpath:sql/4_insert_bulk_data.sql"})
+    void explain_thenNoSeqScan(String name, String sql, Object[] parameters) {
+        //Given
+        //When
+        List<String> plan = jdbcTemplate.queryForList("explain " + sql, String.class, parameters);
+
+        //Then
+        assertThat(plan)
+                .as("plan of %s:%n%s", name, String.join("\n", plan))
+                .noneMatch(line -> line.contains("Seq Scan"));
+    }
+}
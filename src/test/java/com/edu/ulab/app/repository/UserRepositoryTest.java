@@ -1,7 +1,9 @@
 package com.edu.ulab.app.repository;
 
 import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.id.SequenceIdGenerator;
 import com.vladmihalcea.sql.SQLStatementCountValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -10,6 +12,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.jdbc.Sql;
 
+import java.util.List;
+import java.util.function.IntPredicate;
+
 import static com.vladmihalcea.sql.SQLStatementCountValidator.*;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -26,7 +31,7 @@ public class UserRepositoryTest {
         SQLStatementCountValidator.reset();
     }
 
-    @DisplayName("Сохранить юзера. Число select должно равняться 1")
+    @DisplayName("Сохранить юзера при свободном идентификаторе в блоке. Select к последовательности быть не должно")
     @Test
     @Rollback
     @Sql({"classpath:sql/1_clear_schema.sql",
@@ -35,22 +40,103 @@ public class UserRepositoryTest {
     })
     void insertPerson_thenAssertDmlCount() {
         //Given
-        Person person = new Person();
-        person.setAge(111);
-        person.setTitle("reader");
-        person.setFullName("Test Test");
+        saveUsersUntil(id -> !lastInBlock(id));
+        SQLStatementCountValidator.reset();
+        Person person = person("reader");
 
         //When
         Person result = userRepository.save(person);
 
         //Then
         assertThat(result.getAge()).isEqualTo(111);
+        assertSelectCount(0);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
+    @DisplayName("Сохранить юзера после исчерпания блока идентификаторов. Число select должно равняться 1")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void insertPersonAfterBlock_thenAssertDmlCount() {
+        //Given
+        saveUsersUntil(UserRepositoryTest::lastInBlock);
+        SQLStatementCountValidator.reset();
+        Person person = person("reader");
+
+        //When
+        Person result = userRepository.save(person);
+
+        //Then
+        assertThat(result.getId() % SequenceIdGenerator.BLOCK_SIZE).isZero();
         assertSelectCount(1);
         assertInsertCount(0);
         assertUpdateCount(0);
         assertDeleteCount(0);
     }
 
+    @DisplayName("Получить идентификаторы книг юзера. Число select должно равняться 1")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void findUserBookIds_thenAssertDmlCount() {
+        //When
+        List<UserBookIdView> result = userRepository.findUserBookIds(1001);
+
+        //Then
+        assertThat(result).extracting(UserBookIdView::getUserId).containsOnly(1001);
+        assertThat(result).extracting(UserBookIdView::getBookId).containsExactly(2002, 3003);
+        assertSelectCount(1);
+    }
+
+    @DisplayName("Получить юзера с книгами. Обход bookSet не должен давать дополнительных select")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void findWithBookSetById_thenAssertDmlCount() {
+        //When
+        Person result = userRepository.findWithBookSetById(1001).orElseThrow();
+
+        //Then
+        assertThat(result.getBookSet()).extracting(Book::getTitle)
+                .containsExactlyInAnyOrder("default book", "more default book");
+        assertSelectCount(1);
+    }
+
+    /**
+     * Сохраняет юзеров, пока выданный идентификатор не подойдёт под условие. Блок идентификаторов генератора
+     * переживает тесты одного контекста, поэтому число select на сохранение задаётся так, а не порядком тестов.
+     */
+    private void saveUsersUntil(IntPredicate lastId) {
+        int id;
+        int i = 0;
+        do {
+            id = userRepository.save(person("id block " + i++)).getId();
+        } while (!lastId.test(id));
+    }
+
+    private static boolean lastInBlock(int id) {
+        return id % SequenceIdGenerator.BLOCK_SIZE == SequenceIdGenerator.BLOCK_SIZE - 1;
+    }
+
+    private static Person person(String title) {
+        Person person = new Person();
+        person.setAge(111);
+        person.setTitle(title);
+        person.setFullName("Test Test");
+        return person;
+    }
+
     // update
     // get
     // get all
@@ -0,0 +1,114 @@
+package com.edu.ulab.app.retry;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тестирование повторов {@link OptimisticRetryAspect}.
+ */
+@ActiveProfiles("test")
+@DisplayName("Testing optimistic retry.")
+public class OptimisticRetryAspectTest {
+
+    @Test
+    @DisplayName("Конфликт версий меньше числа попыток. Метод должен завершиться успешно.")
+    void conflictThenSuccess_Test() {
+        //given
+        ConflictingUpdate target = new ConflictingUpdate(2);
+        ConflictingUpdate update = proxy(target, 3);
+
+        //when
+        int result = update.update();
+
+        //then
+        assertThat(result).isEqualTo(3);
+        assertThat(target.calls).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Конфликт на всех попытках. Должен пробросить исключение после последней.")
+    void conflictOnEveryAttempt_Test() {
+        //given
+        ConflictingUpdate target = new ConflictingUpdate(Integer.MAX_VALUE);
+        ConflictingUpdate update = proxy(target, 3);
+
+        //when
+        //then
+        assertThatThrownBy(update::update).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(target.calls).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Вызов внутри открытой транзакции. Должен выполниться один раз без повторов.")
+    void conflictInsideTransaction_Test() {
+        //given
+        ConflictingUpdate target = new ConflictingUpdate(1);
+        ConflictingUpdate update = proxy(target, 3);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+
+        //when
+        //then
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> update.update()))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(target.calls).isEqualTo(1);
+    }
+
+    private static ConflictingUpdate proxy(ConflictingUpdate target, int maxAttempts) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new OptimisticRetryAspect(maxAttempts, Duration.ofMillis(1)));
+        return proxyFactory.getProxy();
+    }
+
+    /**
+     * Менеджер без ресурса: открывает транзакцию только в {@link org.springframework.transaction.support.TransactionSynchronizationManager}.
+     */
+    static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    static class ConflictingUpdate {
+        private final int conflicts;
+        int calls;
+
+        ConflictingUpdate(int conflicts) {
+            this.conflicts = conflicts;
+        }
+
+        @RetryOnConflict
+        public int update() {
+            calls++;
+            if (calls <= conflicts) {
+                throw new OptimisticLockingFailureException("Row was updated by another transaction");
+            }
+            return calls;
+        }
+    }
+}
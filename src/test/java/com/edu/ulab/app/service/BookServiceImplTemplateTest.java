@@ -0,0 +1,83 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.id.IdAllocator;
+import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование функционала {@link BookServiceImplTemplate}.
+ */
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+@DisplayName("Testing book functionality on JdbcTemplate.")
+public class BookServiceImplTemplateTest {
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    IdAllocator idAllocator;
+
+    @Test
+    @DisplayName("Пакетное создание книг. Идентификаторы берутся одним вызовом, книги вставляются одним batchUpdate.")
+    void createBooks_Test() {
+        //given
+        BookServiceImplTemplate bookService = new BookServiceImplTemplate(jdbcTemplate, idAllocator, BATCH_SIZE);
+        List<BookDto> bookDtos = List.of(book("first"), book("second"), book("third"));
+
+        //when
+        when(idAllocator.nextIds(3)).thenReturn(new long[]{10, 11, 12});
+
+        //then
+        List<BookDto> result = bookService.createBooks(bookDtos);
+        assertEquals(List.of(10L, 11L, 12L), result.stream().map(BookDto::getId).toList());
+        verify(jdbcTemplate).batchUpdate(anyString(), eq(bookDtos), eq(BATCH_SIZE),
+                ArgumentMatchers.<ParameterizedPreparedStatementSetter<BookDto>>any());
+    }
+
+    @Test
+    @DisplayName("Ошибка в пачке книг. Исключение должно дойти до вызывающего, чтобы транзакция откатилась.")
+    void createBooks_batchFails_Test() {
+        //given
+        BookServiceImplTemplate bookService = new BookServiceImplTemplate(jdbcTemplate, idAllocator, BATCH_SIZE);
+        List<BookDto> bookDtos = List.of(book("first"), book("second"), book("third"));
+        DataIntegrityViolationException failure = new DataIntegrityViolationException("duplicate key");
+
+        //when
+        when(idAllocator.nextIds(3)).thenReturn(new long[]{10, 11, 12});
+        when(jdbcTemplate.batchUpdate(anyString(), eq(bookDtos), eq(BATCH_SIZE),
+                ArgumentMatchers.<ParameterizedPreparedStatementSetter<BookDto>>any())).thenThrow(failure);
+
+        //then
+        assertThatThrownBy(() -> bookService.createBooks(bookDtos)).isSameAs(failure);
+    }
+
+    private static BookDto book(String title) {
+        BookDto bookDto = new BookDto();
+        bookDto.setUserId(1L);
+        bookDto.setTitle(title);
+        bookDto.setAuthor("test author");
+        bookDto.setPageCount(100);
+        return bookDto;
+    }
+}
@@ -2,6 +2,8 @@ package com.edu.ulab.app.service;
 
 import com.edu.ulab.app.dto.BookDto;
 import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.exception.BadRequestException;
+import com.edu.ulab.app.exception.NotFoundException;
 import com.edu.ulab.app.entity.Person;
 import com.edu.ulab.app.mapper.BookMapper;
 import com.edu.ulab.app.repository.BookRepository;
@@ -16,7 +18,13 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -80,6 +88,84 @@ public class BookServiceImplTest {
         assertEquals(1L, bookDtoResult.getId());
     }
 
+    @Test
+    @DisplayName("Пакетное создание книг. Должно сохранить все книги одним вызовом saveAll.")
+    void saveBooks_Test() {
+        //given
+        BookDto firstDto = new BookDto();
+        firstDto.setUserId(1L);
+        firstDto.setTitle("first title");
+
+        BookDto secondDto = new BookDto();
+        secondDto.setUserId(1L);
+        secondDto.setTitle("second title");
+
+        Book first = new Book();
+        first.setTitle("first title");
+
+        Book second = new Book();
+        second.setTitle("second title");
+
+        Book savedFirst = new Book();
+        savedFirst.setId(1);
+
+        Book savedSecond = new Book();
+        savedSecond.setId(2);
+
+        BookDto firstResult = new BookDto();
+        firstResult.setId(1L);
+
+        BookDto secondResult = new BookDto();
+        secondResult.setId(2L);
+
+        //when
+
+        when(bookMapper.bookDtoToBook(firstDto)).thenReturn(first);
+        when(bookMapper.bookDtoToBook(secondDto)).thenReturn(second);
+        when(bookRepository.saveAll(List.of(first, second))).thenReturn(List.of(savedFirst, savedSecond));
+        when(bookMapper.bookToBookDto(savedFirst)).thenReturn(firstResult);
+        when(bookMapper.bookToBookDto(savedSecond)).thenReturn(secondResult);
+
+
+        //then
+        List<BookDto> result = bookService.createBooks(List.of(firstDto, secondDto));
+        assertEquals(List.of(1L, 2L), result.stream().map(BookDto::getId).toList());
+        verify(bookRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Пакетное обновление с повторяющимся id. Должно выбросить BadRequestException, не читая книги.")
+    void updateBooks_DuplicateId_Test() {
+        //given
+        BookDto first = new BookDto();
+        first.setId(1L);
+        first.setTitle("first title");
+
+        BookDto second = new BookDto();
+        second.setId(1L);
+        second.setTitle("second title");
+
+        //when
+        //then
+        assertThatThrownBy(() -> bookService.updateBooks(List.of(first, second)))
+                .isInstanceOf(BadRequestException.class);
+        verify(bookRepository, never()).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("Обновление книги с идентификатором вне диапазона int. Должно выбросить NotFoundException.")
+    void updateBook_OutOfIntRange_Test() {
+        //given
+        BookDto bookDto = new BookDto();
+        bookDto.setId(Integer.MAX_VALUE + 1L);
+        bookDto.setTitle("title");
+
+        //when
+        //then
+        assertThatThrownBy(() -> bookService.updateBook(bookDto))
+                .isInstanceOf(NotFoundException.class);
+        verify(bookRepository, never()).findById(any());
+    }
 
     // update
     // get
@@ -4,19 +4,34 @@ import com.edu.ulab.app.dto.BookDto;
 import com.edu.ulab.app.dto.UserDto;
 import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.exception.NotFoundException;
 import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.repository.BookRepository;
+import com.edu.ulab.app.repository.UserBookIdView;
 import com.edu.ulab.app.repository.UserRepository;
 import com.edu.ulab.app.service.impl.UserServiceImpl;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -26,15 +41,25 @@ import static org.mockito.Mockito.when;
 @ExtendWith(SpringExtension.class)
 @DisplayName("Testing user functionality.")
 public class UserServiceImplTest {
-    @InjectMocks
     UserServiceImpl userService;
 
     @Mock
     UserRepository userRepository;
 
+    @Mock
+    BookRepository bookRepository;
+
     @Mock
     UserMapper userMapper;
 
+    @Mock
+    EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserServiceImpl(userRepository, bookRepository, userMapper, entityManager, 1000);
+    }
+
     @Test
     @DisplayName("Создание пользователя. Должно пройти успешно.")
     void savePerson_Test() {
@@ -76,6 +101,78 @@ public class UserServiceImplTest {
         assertEquals(1L, userDtoResult.getId());
     }
 
+    @Test
+    @DisplayName("Получение пользователя с книгами. Должно собрать идентификаторы книг из одного запроса.")
+    void getUserWithBooks_Test() {
+        //given
+
+        UserBookIdView first = mock(UserBookIdView.class);
+        when(first.getBookId()).thenReturn(2);
+        UserBookIdView second = mock(UserBookIdView.class);
+        when(second.getBookId()).thenReturn(3);
+
+        //when
+
+        when(userRepository.findUserBookIds(1)).thenReturn(List.of(first, second));
+
+        //then
+
+        UserBookResponse result = userService.getUserWithBooks(1L);
+        assertEquals(1L, result.getUserId());
+        assertEquals(List.of(2L, 3L), result.getBooksIdList());
+    }
+
+    @Test
+    @DisplayName("Получение несуществующего пользователя с книгами. Должно выбросить NotFoundException.")
+    void getUserWithBooks_NotFound_Test() {
+        //when
+
+        when(userRepository.findUserBookIds(1)).thenReturn(List.of());
+
+        //then
+
+        assertThatThrownBy(() -> userService.getUserWithBooks(1L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("User with id 1 not found");
+    }
+
+    @Test
+    @DisplayName("Получение пользователя по идентификатору вне диапазона int. Должно выбросить NotFoundException.")
+    void getUserById_OutOfIntRange_Test() {
+        //given
+
+        long id = Integer.MAX_VALUE + 1L;
+
+        //then
+
+        assertThatThrownBy(() -> userService.getUserById(id))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("User with id " + id + " not found");
+        assertThatThrownBy(() -> userService.getUserWithBooks(id))
+                .isInstanceOf(NotFoundException.class);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Удаление пользователей с книгами. Должно выполнить два bulk-запроса без загрузки сущностей.")
+    void deleteUsersByIds_Test() {
+        //given
+        List<Integer> userIds = List.of(1, 2);
+
+        //when
+
+        when(bookRepository.deleteByPersonIds(userIds)).thenReturn(1000);
+        when(userRepository.deleteByIds(userIds)).thenReturn(2);
+
+
+        //then
+        assertEquals(2, userService.deleteUsersByIds(List.of(1L, 2L)));
+        InOrder inOrder = inOrder(bookRepository, userRepository);
+        inOrder.verify(bookRepository).deleteByPersonIds(userIds);
+        inOrder.verify(userRepository).deleteByIds(userIds);
+        verify(userRepository, never()).findById(any());
+    }
+
     // update
     // get
     // get all
@@ -88,4 +185,21 @@ public class UserServiceImplTest {
     //  assertThatThrownBy(() -> testeService.createTest(testRequest))
     //                .isInstanceOf(DataInvalidException.class)
     //                .hasMessage("Invalid data set");
+
+    @Test
+    @DisplayName("Страница пользователей после идентификатора вне диапазона int. Не должна падать с ArithmeticException.")
+    void getUsersAfter_OutOfIntRange_Test() {
+        //given
+        when(userRepository.findByIdGreaterThanOrderById(Integer.MIN_VALUE, PageRequest.ofSize(10)))
+                .thenReturn(List.of());
+
+        //when
+        List<UserDto> afterMax = userService.getUsersAfter(Integer.MAX_VALUE + 1L, 10);
+        List<UserDto> afterMin = userService.getUsersAfter(Long.MIN_VALUE, 10);
+
+        //then
+        assertEquals(List.of(), afterMax);
+        assertEquals(List.of(), afterMin);
+        verify(userRepository).findByIdGreaterThanOrderById(Integer.MIN_VALUE, PageRequest.ofSize(10));
+    }
 }
@@ -0,0 +1,81 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.id.SequenceIdAllocator;
+import com.edu.ulab.app.service.BookService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Пакетная вставка {@link BookServiceImplTemplate#createBooks} в PostgreSQL.
+ * <p>
+ * Тест выполняется без общей транзакции, чтобы проверялась транзакция самого сервиса.
+ * Размер пачки уменьшен до двух строк, так что три книги уходят двумя пачками.
+ */
+@SystemJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({BookServiceImplTemplate.class, SequenceIdAllocator.class})
+@TestPropertySource(properties = "app.jdbc.batch-size=2")
+@Sql({"classpath:sql/1_clear_schema.sql", "classpath:sql/2_insert_person_data.sql"})
+public class BookServiceImplTemplateContainerTest {
+    private static final long USER_ID = 1001;
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @DisplayName("Создать книги несколькими пачками. Все книги должны сохраниться")
+    @Test
+    void createBooks_thenAllBatchesInserted() {
+        //Given
+        List<BookDto> bookDtos = List.of(book(USER_ID, "first"), book(USER_ID, "second"), book(USER_ID, "third"));
+
+        //When
+        List<BookDto> result = bookService.createBooks(bookDtos);
+
+        //Then
+        assertThat(result).extracting(BookDto::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(bookCount()).isEqualTo(3);
+    }
+
+    @DisplayName("Ошибка во второй пачке. Первая пачка должна откатиться вместе с ней")
+    @Test
+    void createBooks_whenSecondBatchFails_thenNothingInserted() {
+        //Given
+        List<BookDto> bookDtos = List.of(book(USER_ID, "first"), book(USER_ID, "second"), book(-1, "no owner"));
+
+        //When
+        //Then
+        assertThatThrownBy(() -> bookService.createBooks(bookDtos)).isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(bookCount()).isZero();
+    }
+
+    private int bookCount() {
+        return jdbcTemplate.queryForObject("select count(*) from ulab_edu.book", Integer.class);
+    }
+
+    private static BookDto book(long userId, String title) {
+        BookDto bookDto = new BookDto();
+        bookDto.setUserId(userId);
+        bookDto.setTitle(title);
+        bookDto.setAuthor("author");
+        bookDto.setPageCount(100);
+        return bookDto;
+    }
+}
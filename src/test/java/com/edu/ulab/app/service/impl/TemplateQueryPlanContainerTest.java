@@ -0,0 +1,94 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.config.SystemJpaTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Планы запросов {@link UserServiceImplTemplate} и {@link BookServiceImplTemplate} на реалистичном объёме данных.
+ * <p>
+ * Проверяются сами константы SQL сервисов, так что изменение запроса сразу попадает под проверку.
+ * Массивы {@code Long[]} передаются как {@code bigint[]}, как это делает сервис.
+ */
+@SystemJpaTest
+public class TemplateQueryPlanContainerTest {
+    /**
+     * Данные из {@code sql/4_insert_bulk_data.sql}: 10 000 пользователей по 10 книг, id книг после id пользователей.
+     */
+    private static final long USER_ID = 5_000;
+    private static final long BOOK_ID = 10_001;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    static Stream<Arguments> templateQueries() {
+        return Stream.of(
+                Arguments.of("UserServiceImplTemplate.SELECT_BY_ID_SQL",
+                        UserServiceImplTemplate.SELECT_BY_ID_SQL, new Object[]{USER_ID}),
+                Arguments.of("UserServiceImplTemplate.UPDATE_SQL",
+                        UserServiceImplTemplate.UPDATE_SQL, new Object[]{"name", "title", 30, USER_ID}),
+                Arguments.of("UserServiceImplTemplate.SELECT_PAGE_SQL",
+                        UserServiceImplTemplate.SELECT_PAGE_SQL, new Object[]{USER_ID, 100}),
+                Arguments.of("UserServiceImplTemplate.SELECT_WITH_BOOK_IDS_SQL",
+                        UserServiceImplTemplate.SELECT_WITH_BOOK_IDS_SQL, new Object[]{USER_ID}),
+                Arguments.of("UserServiceImplTemplate.DELETE_WITH_BOOKS_SQL",
+                        UserServiceImplTemplate.DELETE_WITH_BOOKS_SQL,
+                        new Object[]{new Long[]{USER_ID, USER_ID + 1}, new Long[]{USER_ID, USER_ID + 1}}),
+                Arguments.of("BookServiceImplTemplate.SELECT_BY_ID_SQL",
+                        BookServiceImplTemplate.SELECT_BY_ID_SQL, new Object[]{BOOK_ID}),
+                Arguments.of("BookServiceImplTemplate.SELECT_BY_USER_ID_SQL",
+                        BookServiceImplTemplate.SELECT_BY_USER_ID_SQL, new Object[]{USER_ID}),
+                Arguments.of("BookServiceImplTemplate.UPDATE_SQL",
+                        BookServiceImplTemplate.UPDATE_SQL, new Object[]{"title", "author", 100L, BOOK_ID}),
+                Arguments.of("BookServiceImplTemplate.DELETE_BY_ID_SQL",
+                        BookServiceImplTemplate.DELETE_BY_ID_SQL, new Object[]{BOOK_ID}));
+    }
+
+    @DisplayName("План запроса сервиса на JdbcTemplate не должен содержать Seq Scan")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("templateQueries")
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql", "classpath:sql/4_insert_bulk_data.sql"})
+    void explain_thenNoSeqScan(String name, String sql, Object[] parameters) {
+        //Given
+        //When
+        List<String> plan = jdbcTemplate.execute((ConnectionCallback<List<String>>) con -> {
+            try (PreparedStatement ps = con.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 0; i < parameters.length; i++) {
+                    if (parameters[i] instanceof Long[] ids) {
+                        ps.setArray(i + 1, con.createArrayOf("bigint", ids));
+                    } else {
+                        ps.setObject(i + 1, parameters[i]);
+                    }
+                }
+                List<String> lines = new ArrayList<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        lines.add(rs.getString(1));
+                    }
+                }
+                return lines;
+            }
+        });
+
+        //Then
+        assertThat(plan)
+                .as("plan of %s:%n%s", name, String.join("\n", plan))
+                .noneMatch(line -> line.contains("Seq Scan"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.id.SequenceIdAllocator;
+import com.edu.ulab.app.repository.BookRepository;
+import com.edu.ulab.app.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+
+import javax.persistence.OptimisticLockException;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Версии строк, изменённых через JdbcTemplate, для сущностей JPA с {@code @Version}.
+ * <p>
+ * Сущность читается через JPA, затем та же строка обновляется сервисом на JdbcTemplate в той же транзакции,
+ * и запись сущности должна упасть на проверке версии, а не затереть изменение.
+ */
+@SystemJpaTest
+@Import({UserServiceImplTemplate.class, BookServiceImplTemplate.class, SequenceIdAllocator.class})
+@Sql({"classpath:sql/1_clear_schema.sql",
+        "classpath:sql/2_insert_person_data.sql",
+        "classpath:sql/3_insert_book_data.sql"
+})
+public class TemplateVersionContainerTest {
+    private static final int USER_ID = 1001;
+    private static final int BOOK_ID = 2002;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    UserServiceImplTemplate userService;
+
+    @Autowired
+    BookServiceImplTemplate bookService;
+
+    @DisplayName("Обновить юзера через JdbcTemplate после чтения через JPA. Запись сущности должна упасть")
+    @Test
+    void updatePersonAfterTemplateUpdate_thenOptimisticLockFailure() {
+        //Given
+        Person person = userRepository.findById(USER_ID).orElseThrow();
+        UserDto userDto = new UserDto();
+        userDto.setId((long) USER_ID);
+        userDto.setFullName("jdbc name");
+        userDto.setTitle("jdbc title");
+        userDto.setAge(40);
+        userService.updateUser(userDto);
+
+        //When
+        person.setFullName("jpa name");
+
+        //Then
+        assertThatThrownBy(() -> entityManager.flush())
+                .isInstanceOf(OptimisticLockException.class);
+    }
+
+    @DisplayName("Обновить книгу через JdbcTemplate после чтения через JPA. Запись сущности должна упасть")
+    @Test
+    void updateBookAfterTemplateUpdate_thenOptimisticLockFailure() {
+        //Given
+        Book book = bookRepository.findById(BOOK_ID).orElseThrow();
+        BookDto bookDto = new BookDto();
+        bookDto.setId((long) BOOK_ID);
+        bookDto.setUserId((long) USER_ID);
+        bookDto.setTitle("jdbc title");
+        bookDto.setAuthor("jdbc author");
+        bookDto.setPageCount(100);
+        bookService.updateBook(bookDto);
+
+        //When
+        book.setTitle("jpa title");
+
+        //Then
+        assertThatThrownBy(() -> entityManager.flush())
+                .isInstanceOf(OptimisticLockException.class);
+    }
+}
@@ -0,0 +1,56 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserBooksDto;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Потоковая выгрузка {@link UserServiceImpl#exportUsersWithBooks} в PostgreSQL.
+ * <p>
+ * Курсор читает по одной строке, так что пользователи и книги собираются из нескольких обращений к базе.
+ */
+@SystemJpaTest
+@Import({UserServiceImpl.class, UserMapperImpl.class})
+@TestPropertySource(properties = "app.jdbc.fetch-size=1")
+@Sql({"classpath:sql/1_clear_schema.sql",
+        "classpath:sql/2_insert_person_data.sql",
+        "classpath:sql/3_insert_book_data.sql"
+})
+public class UserServiceImplExportContainerTest {
+
+    @Autowired
+    UserServiceImpl userService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @DisplayName("Выгрузить пользователей с книгами курсором. Книги должны собраться у своих пользователей")
+    @Test
+    void exportUsersWithBooks_thenBooksGroupedByUser() {
+        //Given
+        jdbcTemplate.update("insert into ulab_edu.person (ID, FULL_NAME, TITLE, AGE) values (1002, 'no books', 'writer', 30)");
+        List<UserBooksDto> exported = new ArrayList<>();
+
+        //When
+        userService.exportUsersWithBooks(exported::add);
+
+        //Then
+        assertThat(exported).extracting(userBooks -> userBooks.getUser().getId()).containsExactly(1001L, 1002L);
+        assertThat(exported.get(0).getBooks()).extracting(BookDto::getId).containsExactly(2002L, 3003L);
+        assertThat(exported.get(0).getBooks()).extracting(BookDto::getPageCount).containsExactly(5500L, 6655L);
+        assertThat(exported.get(1).getBooks()).isEmpty();
+    }
+}
@@ -0,0 +1,56 @@
+package com.edu.ulab.app.storage;
+
+import com.edu.ulab.app.config.UnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тестирование {@link LongObjectMap}.
+ */
+@UnitTest
+@DisplayName("Testing primitive long keyed map.")
+public class LongObjectMapTest {
+
+    @Test
+    @DisplayName("Случайные вставки и удаления дают тот же результат, что и HashMap.")
+    void randomOperations_matchHashMap() {
+        //given
+        Random random = new Random(42);
+        LongObjectMap<String> map = new LongObjectMap<>();
+        Map<Long, String> expected = new HashMap<>();
+
+        //when
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                String value = "v" + i;
+                assertThat(map.put(key, value)).isEqualTo(expected.put(key, value));
+            }
+        }
+
+        //then
+        assertThat(map.size()).isEqualTo(expected.size());
+        expected.forEach((key, value) -> assertThat(map.get(key)).isEqualTo(value));
+        Map<Long, String> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertThat(iterated).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Ключ 0 зарезервирован.")
+    void zeroKey_isRejected() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+
+        assertThatThrownBy(() -> map.put(0, "value"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
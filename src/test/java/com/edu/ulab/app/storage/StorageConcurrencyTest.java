@@ -0,0 +1,120 @@
+package com.edu.ulab.app.storage;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.exception.NotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нагрузочная проверка инвариантов {@link Storage} при конкурентных изменениях.
+ */
+@UnitTest
+@DisplayName("Testing storage invariants under contention.")
+public class StorageConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+    private static final int USER_SLOTS = 64;
+
+    @Test
+    @DisplayName("Конкурентные создание, изменение и удаление книг и пользователей не оставляют осиротевших книг.")
+    void concurrentMutations_keepIndexesConsistent() throws Exception {
+        //given
+        Storage storage = new Storage(8);
+        AtomicLongArray userSlots = new AtomicLongArray(USER_SLOTS);
+        for (int slot = 0; slot < USER_SLOTS; slot++) {
+            userSlots.set(slot, storage.createUser(user()).id());
+        }
+
+        //when
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                mutate(storage, userSlots);
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        //then
+        Map<Long, UserRecord> users = new HashMap<>();
+        Map<Long, BookRecord> books = new HashMap<>();
+        storage.forEach(user -> users.put(user.id(), user), book -> books.put(book.id(), book));
+
+        Set<Long> indexedBookIds = new HashSet<>();
+        for (long userId : users.keySet()) {
+            for (long bookId : storage.findBookIds(userId)) {
+                assertThat(indexedBookIds.add(bookId)).as("book %d indexed twice", bookId).isTrue();
+                assertThat(books.get(bookId)).as("indexed book %d exists", bookId).isNotNull();
+                assertThat(books.get(bookId).userId()).isEqualTo(userId);
+            }
+        }
+        assertThat(indexedBookIds).as("every book is indexed by an existing user").isEqualTo(books.keySet());
+    }
+
+    private static void mutate(Storage storage, AtomicLongArray userSlots) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+            int slot = random.nextInt(USER_SLOTS);
+            long userId = userSlots.get(slot);
+            try {
+                switch (random.nextInt(10)) {
+                    case 0 -> {
+                        if (storage.deleteUser(userId)) {
+                            userSlots.compareAndSet(slot, userId, storage.createUser(user()).id());
+                        }
+                    }
+                    case 1, 2 -> {
+                        long[] bookIds = storage.findBookIds(userId);
+                        if (bookIds.length > 0) {
+                            storage.deleteBook(bookIds[random.nextInt(bookIds.length)]);
+                        }
+                    }
+                    case 3 -> {
+                        long[] bookIds = storage.findBookIds(userId);
+                        if (bookIds.length > 0) {
+                            long bookId = bookIds[random.nextInt(bookIds.length)];
+                            storage.updateBook(new BookRecord(bookId, userId, "updated", "author", i));
+                        }
+                    }
+                    case 4 -> storage.createBooks(List.of(book(userId), book(userId), book(userId)));
+                    default -> storage.createBook(book(userId));
+                }
+            } catch (NotFoundException e) {
+                // пользователь или книга удалены другим потоком, это допустимо
+            }
+        }
+    }
+
+    private static UserRecord user() {
+        return new UserRecord(0, "Test Test", "reader", 11);
+    }
+
+    private static BookRecord book(long userId) {
+        return new BookRecord(0, userId, "title", "author", 100);
+    }
+}
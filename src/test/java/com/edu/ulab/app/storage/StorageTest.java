@@ -0,0 +1,64 @@
+package com.edu.ulab.app.storage;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.exception.NotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тестирование {@link Storage}.
+ */
+@UnitTest
+@DisplayName("Testing in-memory storage.")
+public class StorageTest {
+    private final Storage storage = new Storage(0);
+
+    @Test
+    @DisplayName("Сохранение пользователя с книгами. Идентификаторы генерируются, книги привязываются к пользователю.")
+    void createUserWithBooks() {
+        //when
+        UserRecord user = storage.createUser(new UserRecord(0, "Test Test", "reader", 11));
+        List<BookRecord> books = storage.createBooks(List.of(
+                new BookRecord(0, user.id(), "first", "author", 100),
+                new BookRecord(0, user.id(), "second", "author", 200)));
+
+        //then
+        assertThat(user.id()).isPositive();
+        assertThat(storage.findUser(user.id())).contains(user);
+        assertThat(storage.findBookIds(user.id()))
+                .containsExactly(books.get(0).id(), books.get(1).id());
+        assertThat(storage.findBook(books.get(1).id())).contains(books.get(1));
+    }
+
+    @Test
+    @DisplayName("Удаление пользователя. Должно удалить и его книги.")
+    void deleteUser_cascadesToBooks() {
+        //given
+        UserRecord user = storage.createUser(new UserRecord(0, "Test Test", "reader", 11));
+        BookRecord book = storage.createBook(new BookRecord(0, user.id(), "title", "author", 100));
+
+        //when
+        boolean deleted = storage.deleteUser(user.id());
+
+        //then
+        assertThat(deleted).isTrue();
+        assertThat(storage.findUser(user.id())).isEmpty();
+        assertThat(storage.findBook(book.id())).isEmpty();
+        assertThatThrownBy(() -> storage.findBookIds(user.id()))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("User with id " + user.id() + " not found");
+    }
+
+    @Test
+    @DisplayName("Сохранение книги несуществующего пользователя. Должно выбросить NotFoundException.")
+    void createBook_unknownUser() {
+        assertThatThrownBy(() -> storage.createBook(new BookRecord(0, 42, "title", "author", 100)))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("User with id 42 not found");
+    }
+}
@@ -0,0 +1,129 @@
+package com.edu.ulab.app.storage.persistence;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.storage.BookRecord;
+import com.edu.ulab.app.storage.Storage;
+import com.edu.ulab.app.storage.UserRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование журнала и снимков {@link StoragePersistence}.
+ */
+@UnitTest
+@DisplayName("Testing storage WAL and snapshots.")
+public class StoragePersistenceTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Перезапуск без снимка. Состояние восстанавливается из журнала.")
+    void recover_replaysWal() throws Exception {
+        //given
+        Storage storage = new Storage(4);
+        StoragePersistence persistence = persistence(storage, DataSize.ofKilobytes(64));
+        persistence.recover();
+
+        UserRecord user = storage.createUser(new UserRecord(0, "Test Test", "reader", 11));
+        BookRecord kept = storage.createBook(new BookRecord(0, user.id(), "kept", "author", 100));
+        BookRecord deleted = storage.createBook(new BookRecord(0, user.id(), "deleted", "author", 200));
+        storage.deleteBook(deleted.id());
+        storage.updateBook(new BookRecord(kept.id(), user.id(), "updated", "author", 300));
+        UserRecord removedUser = storage.createUser(new UserRecord(0, "Removed", "reader", 22));
+        storage.createBook(new BookRecord(0, removedUser.id(), "gone", "author", 1));
+        storage.deleteUser(removedUser.id());
+        persistence.close();
+
+        //when
+        Storage restored = new Storage(16);
+        persistence(restored, DataSize.ofKilobytes(64)).recover();
+
+        //then
+        assertThat(contents(restored)).isEqualTo(contents(storage));
+        assertThat(restored.findBook(kept.id())).map(BookRecord::title).contains("updated");
+        BookRecord next = restored.createBook(new BookRecord(0, user.id(), "next", "author", 1));
+        assertThat(next.id()).isNotIn(kept.id(), deleted.id());
+    }
+
+    @Test
+    @DisplayName("Снимок и хвост журнала. Вошедшие в снимок журналы удаляются, состояние восстанавливается.")
+    void recover_loadsSnapshotAndWalTail() throws Exception {
+        //given
+        Storage storage = new Storage(4);
+        StoragePersistence persistence = persistence(storage, DataSize.ofKilobytes(1));
+        persistence.recover();
+        for (int i = 0; i < 100; i++) {
+            UserRecord user = storage.createUser(new UserRecord(0, "User " + i, "reader", i));
+            storage.createBook(new BookRecord(0, user.id(), "Book " + i, "author", i));
+        }
+
+        //when
+        persistence.snapshot();
+        UserRecord afterSnapshot = storage.createUser(new UserRecord(0, "After", "reader", 1));
+        storage.createBook(new BookRecord(0, afterSnapshot.id(), "After", "author", 1));
+        storage.deleteUser(1);
+        persistence.close();
+
+        Storage restored = new Storage(4);
+        persistence(restored, DataSize.ofKilobytes(1)).recover();
+
+        //then
+        assertThat(contents(restored)).isEqualTo(contents(storage));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.map(file -> file.getFileName().toString()))
+                    .containsExactlyInAnyOrder(
+                            "snapshot-0000000000000000000.bin",
+                            "wal-0000000000000000001.log",
+                            "wal-0000000000000000002.log");
+        }
+    }
+
+    @Test
+    @DisplayName("Удалены самые новые записи, затем снят снимок. Их идентификаторы не выдаются повторно.")
+    void recover_keepsSequencesAfterNewestDeleted() throws Exception {
+        //given
+        Storage storage = new Storage(4);
+        StoragePersistence persistence = persistence(storage, DataSize.ofKilobytes(64));
+        persistence.recover();
+        UserRecord kept = storage.createUser(new UserRecord(0, "Kept", "reader", 1));
+        storage.createBook(new BookRecord(0, kept.id(), "kept", "author", 1));
+        BookRecord newestBook = storage.createBook(new BookRecord(0, kept.id(), "newest", "author", 1));
+        UserRecord newestUser = storage.createUser(new UserRecord(0, "Newest", "reader", 2));
+        storage.deleteBook(newestBook.id());
+        storage.deleteUser(newestUser.id());
+
+        //when
+        persistence.snapshot();
+        persistence.close();
+        Storage restored = new Storage(16);
+        persistence(restored, DataSize.ofKilobytes(64)).recover();
+
+        //then
+        assertThat(restored.createUser(new UserRecord(0, "Next", "reader", 3)).id()).isGreaterThan(newestUser.id());
+        assertThat(restored.createBook(new BookRecord(0, kept.id(), "next", "author", 1)).id())
+                .isNotEqualTo(newestBook.id());
+    }
+
+    private StoragePersistence persistence(Storage storage, DataSize walChunkSize) {
+        StoragePersistenceProperties properties = new StoragePersistenceProperties();
+        properties.setDirectory(directory);
+        properties.setWalChunkSize(walChunkSize);
+        return new StoragePersistence(storage, properties);
+    }
+
+    private static Map<Long, Object> contents(Storage storage) {
+        Map<Long, Object> contents = new HashMap<>();
+        storage.forEach(user -> contents.put(-user.id(), user), book -> contents.put(book.id(), book));
+        return contents;
+    }
+}
@@ -0,0 +1,10 @@
+insert into ulab_edu.person (id, full_name, title, age)
+select n, 'user ' || n, 'title ' || n, 30
+from generate_series(1, 10000) n;
+
+insert into ulab_edu.book (id, person_id, title, author, page_count)
+select 10000 + n, (n - 1) / 10 + 1, 'book ' || n, 'author', 100
+from generate_series(1, 100000) n;
+
+analyze ulab_edu.person;
+analyze ulab_edu.book;